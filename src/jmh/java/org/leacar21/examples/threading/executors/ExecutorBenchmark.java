@@ -0,0 +1,85 @@
+package org.leacar21.examples.threading.executors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Muchas etapas *Async cortas, como en completableFeatureCombine: pares de supplyAsync unidos con thenCombineAsync y
+// una etapa final thenApplyAsync, todo en el mismo executor. Compara el pool fijo (LinkedBlockingQueue compartida), el
+// pool acotado de FeatureExample (ArrayBlockingQueue compartida) y StripedExecutor (una cola por worker), con y sin
+// afinidad por clave.
+//
+// Para ver cómo escala con más cores y más submitters, variar 'workers' y la cantidad de hilos de JMH:
+// mvn -Pjmh package && java -jar target/benchmarks.jar ExecutorBenchmark -t 1 -t 4 (o -t max)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutorBenchmark {
+
+    private static final int PAIRS = 8;
+
+    @Param({ "FIXED", "BOUNDED", "STRIPED", "STRIPED_KEYED" })
+    public String pool;
+
+    @Param({ "2", "8" })
+    public int workers;
+
+    private ExecutorService executor;
+    private StripedExecutor striped;
+
+    @Setup
+    public void setUp() {
+        switch (this.pool) {
+            case "FIXED":
+                this.executor = Executors.newFixedThreadPool(this.workers, new NamedThreadFactory("bench-fixed", true));
+                break;
+            case "BOUNDED":
+                this.executor = BoundedExecutors.newBoundedExecutor("bench-bounded", this.workers, this.workers, 1024, RejectionPolicy.CALLER_RUNS);
+                break;
+            default:
+                this.striped = new StripedExecutor("bench-striped", this.workers);
+                this.executor = this.striped;
+                break;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Integer combine() {
+        // Con STRIPED_KEYED todas las etapas de esta invocación van al worker de su clave
+        Executor stages = this.striped != null && "STRIPED_KEYED".equals(this.pool)
+                ? this.striped.forKey(Thread.currentThread().getId()) : this.executor;
+        CompletableFuture<Integer> total = CompletableFuture.completedFuture(0);
+        for (int i = 0; i < PAIRS; i++) {
+            int value = i;
+            CompletableFuture<Integer> left = CompletableFuture.supplyAsync(() -> value, stages);
+            CompletableFuture<Integer> right = CompletableFuture.supplyAsync(() -> value * 2, stages);
+            CompletableFuture<Integer> pair = left.thenCombineAsync(right, Integer::sum, stages);
+            total = total.thenCombine(pair, Integer::sum);
+        }
+        return total.thenApplyAsync(v -> v + 1, stages).join();
+    }
+
+}
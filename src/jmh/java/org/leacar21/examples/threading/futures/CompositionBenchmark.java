@@ -0,0 +1,158 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.leacar21.examples.threading.executors.BoundedExecutors;
+import org.leacar21.examples.threading.executors.RejectionPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Mide throughput y latencia por operación de cada composición que muestra FeatureExample, en su variante sin Async
+// (la etapa corre en el hilo que completa el futuro anterior) y con Async (salto al executor), sobre los distintos
+// executors: el pool fijo de 5 hilos, el pool acotado de 4 a 8 hilos, el ForkJoinPool común y ejecución directa.
+//
+// Cada operación arranca con un supplyAsync en el executor, para que el futuro origen normalmente NO esté completo cuando
+// se registra la etapa, como ocurre en los ejemplos.
+//
+// Uso: mvn -Pjmh package && java -jar target/benchmarks.jar CompositionBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositionBenchmark {
+
+    public enum ExecutorType {
+        FIXED_POOL, BOUNDED_POOL, COMMON_POOL, DIRECT
+    }
+
+    @Param
+    public ExecutorType executorType;
+
+    private Executor executor;
+    private ExecutorService ownedExecutor;
+
+    @Setup
+    public void setUp() {
+        switch (this.executorType) {
+            case FIXED_POOL:
+                this.ownedExecutor = Executors.newFixedThreadPool(5);
+                this.executor = this.ownedExecutor;
+                break;
+            case BOUNDED_POOL:
+                this.ownedExecutor = BoundedExecutors.newBoundedExecutor("bench-pool", 4, 8, 100, RejectionPolicy.CALLER_RUNS);
+                this.executor = this.ownedExecutor;
+                break;
+            case COMMON_POOL:
+                this.executor = ForkJoinPool.commonPool();
+                break;
+            case DIRECT:
+            default:
+                this.executor = Runnable::run;
+                break;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (this.ownedExecutor != null) {
+            this.ownedExecutor.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<String> source(String value) {
+        return CompletableFuture.supplyAsync(() -> value, this.executor);
+    }
+
+    private CompletableFuture<String> failing() {
+        return CompletableFuture.supplyAsync(() ->
+            {
+                throw new IllegalStateException("Error en el futuro");
+            } , this.executor);
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Benchmark
+    public String thenApply() {
+        return this.source("a").thenApply(String::toUpperCase).join();
+    }
+
+    @Benchmark
+    public String thenApplyAsync() {
+        return this.source("a").thenApplyAsync(String::toUpperCase, this.executor).join();
+    }
+
+    @Benchmark
+    public String thenCompose() {
+        return this.source("a").thenCompose(s -> CompletableFuture.supplyAsync(() -> s.concat("b"), this.executor)).join();
+    }
+
+    @Benchmark
+    public String thenComposeAsync() {
+        return this.source("a").thenComposeAsync(s -> CompletableFuture.supplyAsync(() -> s.concat("b"), this.executor), this.executor).join();
+    }
+
+    @Benchmark
+    public String thenCombine() {
+        return this.source("a").thenCombine(this.source("b"), String::concat).join();
+    }
+
+    @Benchmark
+    public String thenCombineAsync() {
+        return this.source("a").thenCombineAsync(this.source("b"), String::concat, this.executor).join();
+    }
+
+    @Benchmark
+    public String applyToEither() {
+        return this.source("a").applyToEither(this.source("b"), String::toUpperCase).join();
+    }
+
+    @Benchmark
+    public String applyToEitherAsync() {
+        return this.source("a").applyToEitherAsync(this.source("b"), String::toUpperCase, this.executor).join();
+    }
+
+    @Benchmark
+    public Void allOf() {
+        return CompletableFuture.allOf(this.source("a"), this.source("b"), this.source("c")).join();
+    }
+
+    @Benchmark
+    public Object anyOf() {
+        return CompletableFuture.anyOf(this.source("a"), this.source("b"), this.source("c")).join();
+    }
+
+    @Benchmark
+    public String handle() {
+        return this.failing().handle((s, e) -> e != null ? "StringPorDefecto" : s).join();
+    }
+
+    @Benchmark
+    public String handleAsync() {
+        return this.failing().handleAsync((s, e) -> e != null ? "StringPorDefecto" : s, this.executor).join();
+    }
+
+    // En Java 8 no existe exceptionallyAsync (aparece en Java 12): la variante con salto al executor es handleAsync.
+    @Benchmark
+    public String exceptionally() {
+        return this.failing().exceptionally(e -> "StringPorDefecto").join();
+    }
+
+}
@@ -0,0 +1,88 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// 'callbacks' continuaciones triviales (como los whenComplete que solo loguean en FeatureExample) sobre un futuro que
+// completa un hilo del pool: whenCompleteAsync con el executor (lo actual) contra Pipeline con cada ContinuationPolicy.
+//
+// Uso: mvn -Pjmh package && java -jar target/benchmarks.jar ContinuationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContinuationBenchmark {
+
+    @Param({ "1", "8" })
+    public int callbacks;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        this.executor = Executors.newFixedThreadPool(5);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object whenCompleteAsync() {
+        CompletableFuture<Integer> source = CompletableFuture.supplyAsync(() -> 1, this.executor);
+        CompletableFuture<?>[] callbacks = new CompletableFuture<?>[this.callbacks];
+        for (int i = 0; i < callbacks.length; i++) {
+            callbacks[i] = source.whenCompleteAsync((s, e) -> consume(s), this.executor);
+        }
+        return CompletableFuture.allOf(callbacks).join();
+    }
+
+    @Benchmark
+    public Object pipelineAsync() {
+        return this.pipeline(ContinuationPolicy.ASYNC);
+    }
+
+    @Benchmark
+    public Object pipelineInline() {
+        return this.pipeline(ContinuationPolicy.INLINE);
+    }
+
+    @Benchmark
+    public Object pipelineAdaptive() {
+        return this.pipeline(ContinuationPolicy.ADAPTIVE);
+    }
+
+    private Object pipeline(ContinuationPolicy policy) {
+        CompletableFuture<Integer> source = CompletableFuture.supplyAsync(() -> 1, this.executor);
+        CompletableFuture<?>[] callbacks = new CompletableFuture<?>[this.callbacks];
+        for (int i = 0; i < callbacks.length; i++) {
+            callbacks[i] = Pipeline.from(source).whenComplete((s, e) -> consume(s)).run(this.executor, policy);
+        }
+        return CompletableFuture.allOf(callbacks).join();
+    }
+
+    private static void consume(Integer value) {
+        if (value == null) {
+            throw new IllegalStateException();
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cadena de 'depth' transformaciones cortas: CompletableFuture con thenApplyAsync por etapa, CompletableFuture con
+// thenApply (sin salto, pero un nodo por etapa) y Pipeline (una sola tarea). Correr con -prof gc para ver la alocación.
+//
+// Uso: mvn -Pjmh package && java -jar target/benchmarks.jar PipelineBenchmark -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({ "4", "16" })
+    public int depth;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        this.executor = Executors.newFixedThreadPool(5);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Integer completableFutureAsyncPerStage() {
+        CompletableFuture<Integer> future = CompletableFuture.supplyAsync(() -> 0, this.executor);
+        for (int i = 0; i < this.depth; i++) {
+            future = future.thenApplyAsync(v -> v + 1, this.executor);
+        }
+        return future.handle((ok, ex) -> ok).join();
+    }
+
+    @Benchmark
+    public Integer completableFutureSyncStages() {
+        CompletableFuture<Integer> future = CompletableFuture.supplyAsync(() -> 0, this.executor);
+        for (int i = 0; i < this.depth; i++) {
+            future = future.thenApply(v -> v + 1);
+        }
+        return future.handle((ok, ex) -> ok).join();
+    }
+
+    @Benchmark
+    public Integer pipeline() {
+        Pipeline<Integer> pipeline = Pipeline.supply(() -> 0);
+        for (int i = 0; i < this.depth; i++) {
+            pipeline = pipeline.map(v -> v + 1);
+        }
+        return pipeline.handle((ok, ex) -> ok).runAsync(this.executor).join();
+    }
+
+}
@@ -1,13 +1,37 @@
 package org.leacar21.examples;
 
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.leacar21.examples.threading.futures.DrainReport;
+import org.leacar21.examples.threading.futures.FeatureExample;
+import org.leacar21.examples.threading.load.LoadGenerator;
+
 /**
- * Hello world!
- *
+ * Runs the CompletableFuture examples and waits for their in-flight work
+ * before exiting. With {@code load} as the first argument it runs the
+ * load generator instead, passing it the remaining arguments.
  */
 public class App 
 {
+    private static final long DRAIN_SECONDS = 30;
+
     public static void main( String[] args )
     {
-        System.out.println( "Hello World!" );
+        if ( args.length > 0 && "load".equals( args[0] ) )
+        {
+            LoadGenerator.main( Arrays.copyOfRange( args, 1, args.length ) );
+            return;
+        }
+
+        FeatureExample example = new FeatureExample();
+        example.completableFeatureBasic();
+        example.completableFeatureCallbacks();
+        example.completableFeatureExceptions();
+        example.completableFeatureCombine();
+        example.completableFeatureExample1();
+
+        DrainReport report = example.close( DRAIN_SECONDS, TimeUnit.SECONDS );
+        System.out.println( report );
     }
 }
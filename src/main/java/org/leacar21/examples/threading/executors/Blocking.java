@@ -0,0 +1,13 @@
+package org.leacar21.examples.threading.executors;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marca una clase de función (Function, BiFunction, Supplier) como bloqueante: StageExecutors siempre la envía al pool
+// de I/O, nunca al ForkJoinPool de CPU.
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Blocking {
+}
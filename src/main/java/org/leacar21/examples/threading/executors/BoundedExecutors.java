@@ -0,0 +1,20 @@
+package org.leacar21.examples.threading.executors;
+
+import java.util.concurrent.TimeUnit;
+
+// Fábrica de executors acotados. A diferencia de new ArrayBlockingQueue(Integer.MAX_VALUE), que intenta reservar un array
+// de ~2^31 posiciones y nunca se llena, estas colas tienen una capacidad razonable, por lo que el pool crece de core a max
+// y bajo carga degrada de forma predecible según la RejectionPolicy.
+public final class BoundedExecutors {
+
+    public static final long DEFAULT_KEEP_ALIVE_SECONDS = 60;
+
+    private BoundedExecutors() {
+    }
+
+    public static BoundedThreadPoolExecutor newBoundedExecutor(String name, int corePoolSize, int maximumPoolSize, int queueCapacity,
+            RejectionPolicy policy) {
+        return new BoundedThreadPoolExecutor(name, corePoolSize, maximumPoolSize, DEFAULT_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queueCapacity, policy);
+    }
+
+}
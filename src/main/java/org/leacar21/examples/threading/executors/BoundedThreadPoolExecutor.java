@@ -0,0 +1,97 @@
+package org.leacar21.examples.threading.executors;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ThreadPoolExecutor con cola acotada e instrumentado.
+// Con una cola acotada el pool realmente crece de core a max: ThreadPoolExecutor solo crea hilos extra cuando la cola
+// rechaza la tarea (está llena). Cuando además se alcanzó max, se aplica la RejectionPolicy configurada.
+public class BoundedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final String name;
+    private final int queueCapacity;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public BoundedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, long keepAlive, TimeUnit unit, int queueCapacity,
+            RejectionPolicy policy) {
+        super(corePoolSize, maximumPoolSize, keepAlive, unit, new ArrayBlockingQueue<Runnable>(queueCapacity), new NamedThreadFactory(name, true));
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.setRejectedExecutionHandler(this.handlerFor(policy));
+    }
+
+    private RejectedExecutionHandler handlerFor(RejectionPolicy policy) {
+        RejectedExecutionHandler saturated = this.saturatedHandlerFor(policy);
+        return (r, executor) ->
+            {
+                // Un pool apagado no está saturado: se rechaza con RejectedExecutionException común, sea cual sea la
+                // política, en lugar de ejecutar o descartar la tarea en silencio
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("Pool '" + this.name + "' apagado");
+                }
+                this.rejectedCount.incrementAndGet();
+                saturated.rejectedExecution(r, executor);
+            };
+    }
+
+    private RejectedExecutionHandler saturatedHandlerFor(RejectionPolicy policy) {
+        switch (policy) {
+            case CALLER_RUNS:
+                return (r, executor) -> r.run();
+            case DROP_OLDEST:
+                return (r, executor) ->
+                    {
+                        // ATENCIÓN: la tarea descartada no se ejecuta nunca. Si vino de submit se cancela su Future, así
+                        // quien la espera recibe CancellationException. Las tareas de las etapas de CompletableFuture
+                        // también son Future, pero cancelarlas no completa al CompletableFuture, que queda pendiente para
+                        // siempre; no hay API para llegar a él desde acá (ver RejectionPolicy.DROP_OLDEST).
+                        Runnable dropped = executor.getQueue().poll();
+                        if (dropped instanceof Future) {
+                            ((Future<?>) dropped).cancel(false);
+                        }
+                        executor.execute(r);
+                    };
+            case FAIL_FAST:
+            default:
+                return (r, executor) ->
+                    {
+                        throw new ExecutorSaturatedException(this.name, this.queueCapacity);
+                    };
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    // Cantidad de tareas esperando en la cola
+    public int getQueueDepth() {
+        return this.getQueue().size();
+    }
+
+    // Cantidad de hilos ejecutando tareas en este momento
+    public int getActiveThreads() {
+        return this.getActiveCount();
+    }
+
+    // Cantidad de veces que se aplicó la política de rechazo
+    public long getRejectedCount() {
+        return this.rejectedCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return this.name + "[threads=" + this.getPoolSize() + ", active=" + this.getActiveThreads() + ", queued=" + this.getQueueDepth() + "/"
+                + this.queueCapacity + ", rejected=" + this.getRejectedCount() + "]";
+    }
+
+}
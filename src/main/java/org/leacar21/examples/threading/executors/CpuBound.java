@@ -0,0 +1,13 @@
+package org.leacar21.examples.threading.executors;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marca una clase de función (Function, BiFunction, Supplier) como trabajo de CPU corto: StageExecutors la ejecuta en el
+// pool de CPU o inline en lugar de enviarla al pool de I/O.
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CpuBound {
+}
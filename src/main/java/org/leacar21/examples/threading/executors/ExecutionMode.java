@@ -0,0 +1,37 @@
+package org.leacar21.examples.threading.executors;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Modo de ejecución de las etapas de los ejemplos.
+public enum ExecutionMode {
+
+    // Pool fijo de hilos de plataforma (daemon, con nombre): como máximo 'poolSize' etapas bloqueantes avanzan a la vez.
+    FIXED_POOL {
+        @Override
+        public ExecutorService newExecutor(String name, int poolSize) {
+            return Executors.newFixedThreadPool(poolSize, new NamedThreadFactory(name, true));
+        }
+    },
+
+    // Pool fijo con una cola por hilo y robo de trabajo (StripedExecutor): mismo paralelismo que FIXED_POOL, sin el lock
+    // de la cola compartida en cada submit.
+    STRIPED {
+        @Override
+        public ExecutorService newExecutor(String name, int poolSize) {
+            return new StripedExecutor(name, poolSize);
+        }
+    },
+
+    // Un hilo virtual por etapa (Java 21+): bloquear en sleep o I/O no ocupa un hilo de plataforma, por lo que miles de
+    // etapas bloqueantes pueden avanzar a la vez. En JVMs sin hilos virtuales cae al mismo pool fijo que FIXED_POOL.
+    VIRTUAL_THREADS {
+        @Override
+        public ExecutorService newExecutor(String name, int poolSize) {
+            return VirtualThreads.newVirtualThreadPerTaskExecutor(name, poolSize);
+        }
+    };
+
+    public abstract ExecutorService newExecutor(String name, int poolSize);
+
+}
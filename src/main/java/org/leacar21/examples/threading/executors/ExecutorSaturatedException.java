@@ -0,0 +1,27 @@
+package org.leacar21.examples.threading.executors;
+
+import java.util.concurrent.RejectedExecutionException;
+
+// Excepción tipada que lanza un BoundedThreadPoolExecutor con política FAIL_FAST cuando no puede aceptar más trabajo.
+public class ExecutorSaturatedException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String poolName;
+    private final int queueCapacity;
+
+    public ExecutorSaturatedException(String poolName, int queueCapacity) {
+        super("Pool '" + poolName + "' saturado (cola de " + queueCapacity + " llena y máximo de hilos alcanzado)");
+        this.poolName = poolName;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public String getPoolName() {
+        return this.poolName;
+    }
+
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+}
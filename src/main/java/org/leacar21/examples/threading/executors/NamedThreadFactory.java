@@ -0,0 +1,25 @@
+package org.leacar21.examples.threading.executors;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// ThreadFactory que asigna nombres legibles ("prefijo-N") a los hilos del pool, útil para leer thread dumps y logs.
+public class NamedThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+    private final boolean daemon;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public NamedThreadFactory(String prefix, boolean daemon) {
+        this.prefix = prefix;
+        this.daemon = daemon;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, this.prefix + "-" + this.counter.incrementAndGet());
+        thread.setDaemon(this.daemon);
+        return thread;
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.leacar21.examples.threading.executors;
+
+// Qué hacer con una tarea cuando el pool llegó a su máximo de hilos y la cola está llena. Con el pool apagado ninguna
+// política aplica: siempre se lanza RejectedExecutionException.
+public enum RejectionPolicy {
+
+    // El hilo que envía la tarea la ejecuta él mismo: frena al productor (backpressure natural).
+    CALLER_RUNS,
+
+    // Descarta la tarea más vieja de la cola y reintenta encolar la nueva.
+    // ATENCIÓN: la tarea descartada se pierde y quien la espera puede quedar esperando para siempre. Si se envió con
+    // submit su Future se cancela. Pero las etapas de CompletableFuture (supplyAsync, runAsync, then*Async) se envían
+    // como tareas internas que son Future pero no el CompletableFuture: cancelarlas no lo completa, y ese futuro, sus
+    // dependientes y cualquier allOf que lo incluya no terminan nunca (o hasta que venza un Deadline).
+    // No usarla con etapas de CompletableFuture; solo con tareas que se pueden perder sin que nadie las espere.
+    DROP_OLDEST,
+
+    // Falla inmediatamente lanzando ExecutorSaturatedException.
+    FAIL_FAST
+
+}
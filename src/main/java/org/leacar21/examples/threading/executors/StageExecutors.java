@@ -0,0 +1,121 @@
+package org.leacar21.examples.threading.executors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Modelo de dos executors: las etapas bloqueantes van al pool de I/O y las de CPU a un ForkJoinPool dimensionado a los
+// cores (work-stealing, sin una cola compartida). Además, una etapa de CPU cuya etapa anterior ya terminó se ejecuta
+// inline en el hilo actual, sin salto de cola ni cambio de contexto: para transformaciones cortas el salto al executor
+// suele costar más que la transformación.
+//
+// El tipo de etapa se indica con StageKind, o se deduce de las anotaciones @CpuBound / @Blocking de la clase de la
+// función. Las lambdas no pueden anotarse: sin anotación se asume BLOCKING, que nunca bloquea el pool de CPU. Con las
+// dos anotaciones también gana BLOCKING, por el mismo motivo.
+public class StageExecutors {
+
+    private final Executor io;
+    private final ForkJoinPool cpu;
+
+    public StageExecutors(Executor io) {
+        this(io, Runtime.getRuntime().availableProcessors());
+    }
+
+    public StageExecutors(Executor io, int cpuParallelism) {
+        this.io = io;
+        this.cpu = new ForkJoinPool(cpuParallelism, new NamedWorkerFactory("stage-cpu"), null, true);
+    }
+
+    public Executor io() {
+        return this.io;
+    }
+
+    public ForkJoinPool cpu() {
+        return this.cpu;
+    }
+
+    public Executor executorFor(StageKind kind) {
+        return kind == StageKind.CPU ? this.cpu : this.io;
+    }
+
+    public static StageKind kindOf(Object function) {
+        Class<?> type = function.getClass();
+        if (type.isAnnotationPresent(Blocking.class)) {
+            return StageKind.BLOCKING;
+        }
+        if (type.isAnnotationPresent(CpuBound.class)) {
+            return StageKind.CPU;
+        }
+        return StageKind.BLOCKING;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    public <T> CompletableFuture<T> supply(StageKind kind, Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, this.executorFor(kind));
+    }
+
+    public <T, R> CompletableFuture<R> thenApply(CompletableFuture<T> source, Function<? super T, ? extends R> function) {
+        return this.thenApply(source, kindOf(function), function);
+    }
+
+    public <T, R> CompletableFuture<R> thenApply(CompletableFuture<T> source, StageKind kind, Function<? super T, ? extends R> function) {
+        if (kind == StageKind.CPU && source.isDone()) {
+            return source.thenApply(function);
+        }
+        return source.thenApplyAsync(function, this.executorFor(kind));
+    }
+
+    public <T, U, R> CompletableFuture<R> thenCombine(CompletableFuture<T> source, CompletableFuture<U> other,
+            BiFunction<? super T, ? super U, ? extends R> function) {
+        return this.thenCombine(source, other, kindOf(function), function);
+    }
+
+    public <T, U, R> CompletableFuture<R> thenCombine(CompletableFuture<T> source, CompletableFuture<U> other, StageKind kind,
+            BiFunction<? super T, ? super U, ? extends R> function) {
+        if (kind == StageKind.CPU && source.isDone() && other.isDone()) {
+            return source.thenCombine(other, function);
+        }
+        return source.thenCombineAsync(other, function, this.executorFor(kind));
+    }
+
+    // Apaga el pool de CPU (el de I/O pertenece a quien lo pasó)
+    public void shutdown() {
+        this.cpu.shutdown();
+    }
+
+    public void shutdownNow() {
+        this.cpu.shutdownNow();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.cpu.awaitTermination(timeout, unit);
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private static final class NamedWorkerFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedWorkerFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(this.prefix + "-" + this.counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,13 @@
+package org.leacar21.examples.threading.executors;
+
+// Tipo de trabajo de una etapa, para elegir dónde ejecutarla.
+public enum StageKind {
+
+    // Bloquea (sleep, I/O, esperas): va al pool de I/O, que puede tener más hilos que cores.
+    BLOCKING,
+
+    // Solo usa CPU y es corta (transformaciones, merges): va al ForkJoinPool dimensionado a los cores, o corre inline si
+    // la etapa anterior ya terminó.
+    CPU
+
+}
@@ -0,0 +1,276 @@
+package org.leacar21.examples.threading.executors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Executor con una cola por worker en lugar de una única cola compartida.
+//
+// En Executors.newFixedThreadPool todos los submits y todos los workers pasan por el mismo lock de la
+// LinkedBlockingQueue; con muchas etapas *Async cortas ese lock es el cuello de botella. Acá cada worker tiene su
+// propia cola lock-free:
+//
+// - Un submit desde un worker (por ejemplo el thenApplyAsync de una etapa que corre en el pool) va a la cola de ese
+//   mismo worker. Los submits externos se reparten en round-robin: si fueran a una cola por hilo submitter, todas las
+//   etapas que agenda un mismo hilo (el timer de Delays, el llamador) caerían en un solo worker y los demás recién las
+//   robarían al vencer su espera.
+// - Un worker sin trabajo roba tareas del final de las colas de los demás, así una cola cargada no deja hilos ociosos.
+// - execute(key, task) manda todas las tareas de una misma clave al mismo worker, a una cola que no se roba: las etapas
+//   de un mismo pedido corren en orden, de a una, y en el mismo hilo (con sus datos todavía en cache).
+public class StripedExecutor extends AbstractExecutorService {
+
+    // Tope de espera de un worker ocioso; normalmente lo despierta un submit antes
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final String name;
+    private final Worker[] workers;
+    private final AtomicLong stealCount = new AtomicLong();
+    private final AtomicInteger nextExternal = new AtomicInteger();
+    // Submits en curso: un worker solo termina en shutdown cuando no queda ninguno que pueda encolarle una tarea
+    private final AtomicInteger submitting = new AtomicInteger();
+    private final ThreadLocal<Worker> currentWorker = new ThreadLocal<>();
+    private final CountDownLatch terminated;
+    private volatile boolean shutdown;
+
+    public StripedExecutor(String name, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers debe ser >= 1");
+        }
+        this.name = name;
+        this.workers = new Worker[workers];
+        this.terminated = new CountDownLatch(workers);
+        NamedThreadFactory threadFactory = new NamedThreadFactory(name, true);
+        for (int i = 0; i < workers; i++) {
+            this.workers[i] = new Worker(i);
+            this.workers[i].thread = threadFactory.newThread(this.workers[i]);
+        }
+        for (Worker worker : this.workers) {
+            worker.thread.start();
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getWorkerCount() {
+        return this.workers.length;
+    }
+
+    // Tareas que algún worker tomó de la cola de otro
+    public long getStealCount() {
+        return this.stealCount.get();
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Worker worker : this.workers) {
+            depth += worker.tasks.size() + worker.affine.size();
+        }
+        return depth;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        this.submitting.incrementAndGet();
+        try {
+            this.checkRunning(task);
+            Worker current = this.currentWorker.get();
+            Worker target = current != null ? current : this.workers[Math.floorMod(this.nextExternal.getAndIncrement(), this.workers.length)];
+            target.tasks.add(task);
+            this.signalWork(target, current == null);
+        } finally {
+            this.submitting.decrementAndGet();
+        }
+    }
+
+    // Ejecuta la tarea en el worker asignado a la clave, en orden respecto de las demás tareas de la misma clave
+    public void execute(Object key, Runnable task) {
+        this.submitting.incrementAndGet();
+        try {
+            this.checkRunning(task);
+            Worker target = this.workers[Math.floorMod(spread(key.hashCode()), this.workers.length)];
+            target.affine.add(task);
+            if (target.parked) {
+                LockSupport.unpark(target.thread);
+            }
+        } finally {
+            this.submitting.decrementAndGet();
+        }
+    }
+
+    // Executor atado a una clave, para pasarlo a supplyAsync/thenApplyAsync y que todas las etapas de un pedido corran
+    // en el mismo worker
+    public Executor forKey(Object key) {
+        return task -> this.execute(key, task);
+    }
+
+    @Override
+    public void shutdown() {
+        this.shutdown = true;
+        for (Worker worker : this.workers) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        this.shutdown = true;
+        List<Runnable> pending = new ArrayList<>();
+        for (Worker worker : this.workers) {
+            drainTo(worker.affine, pending);
+            drainTo(worker.tasks, pending);
+            worker.thread.interrupt();
+        }
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return this.shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return this.terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.terminated.await(timeout, unit);
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private final class Worker implements Runnable {
+
+        final int index;
+        // Tareas robables: el dueño toma del principio, los ladrones del final
+        final ConcurrentLinkedDeque<Runnable> tasks = new ConcurrentLinkedDeque<>();
+        // Tareas con clave: solo las ejecuta este worker, en orden
+        final Queue<Runnable> affine = new ConcurrentLinkedQueue<>();
+        volatile boolean parked;
+        Thread thread;
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            StripedExecutor.this.currentWorker.set(this);
+            try {
+                while (true) {
+                    Runnable task = this.next();
+                    if (task != null) {
+                        this.runTask(task);
+                        continue;
+                    }
+                    if (StripedExecutor.this.shutdown && StripedExecutor.this.submitting.get() == 0) {
+                        // Una última mirada: un submit que empezó antes del shutdown ya terminó de encolar
+                        task = this.next();
+                        if (task == null) {
+                            return;
+                        }
+                        this.runTask(task);
+                        continue;
+                    }
+                    // Se marca como dormido antes de volver a mirar las colas: un submit posterior ve parked y lo despierta
+                    this.parked = true;
+                    task = this.next();
+                    if (task == null && !StripedExecutor.this.shutdown) {
+                        LockSupport.parkNanos(StripedExecutor.this, IDLE_PARK_NANOS);
+                    }
+                    this.parked = false;
+                    if (task != null) {
+                        this.runTask(task);
+                    }
+                }
+            } finally {
+                StripedExecutor.this.terminated.countDown();
+            }
+        }
+
+        private Runnable next() {
+            Runnable task = this.affine.poll();
+            if (task == null) {
+                task = this.tasks.pollFirst();
+            }
+            if (task == null) {
+                task = this.steal();
+            }
+            return task;
+        }
+
+        private Runnable steal() {
+            Worker[] workers = StripedExecutor.this.workers;
+            for (int i = 1; i < workers.length; i++) {
+                Runnable task = workers[(this.index + i) % workers.length].tasks.pollLast();
+                if (task != null) {
+                    StripedExecutor.this.stealCount.incrementAndGet();
+                    return task;
+                }
+            }
+            return null;
+        }
+
+        private void runTask(Runnable task) {
+            Thread.interrupted();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+            }
+        }
+    }
+
+    private void checkRunning(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        if (this.shutdown) {
+            throw new RejectedExecutionException("El executor " + this.name + " está apagado");
+        }
+    }
+
+    // Despierta al dueño de la cola; si está ocupado y el submit es externo, a algún worker ocioso para que la robe.
+    // Un worker que se encola trabajo a sí mismo lo toma enseguida: despertar a otro solo agregaría un cambio de contexto
+    // (si se acumula, los ociosos lo roban al vencer su espera).
+    private void signalWork(Worker target, boolean external) {
+        if (target.parked) {
+            LockSupport.unpark(target.thread);
+            return;
+        }
+        if (!external) {
+            return;
+        }
+        for (Worker worker : this.workers) {
+            if (worker.parked) {
+                LockSupport.unpark(worker.thread);
+                return;
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void drainTo(Queue<Runnable> queue, List<Runnable> target) {
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            target.add(task);
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.leacar21.examples.threading.executors;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Acceso a los hilos virtuales (Java 21+) desde código compilado para Java 8.
+// Esta es la versión base del multi-release jar: busca Executors.newVirtualThreadPerTaskExecutor por reflection y, si no
+// se puede usar, cae al mismo pool fijo de hilos de plataforma que FIXED_POOL. En Java 21+ el jar usa la versión de
+// src/main/java21, que llama al API directamente.
+//
+// Que el método exista no alcanza: en Java 19/20 sin --enable-preview existe pero lanza UnsupportedOperationException.
+// Por eso al cargar la clase se hace una llamada de prueba, y solo si funciona se consideran soportados.
+public final class VirtualThreads {
+
+    private static final Method NEW_VIRTUAL_EXECUTOR = probeVirtualExecutorFactory();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    // Un hilo virtual por tarea; si la JVM no los soporta, un pool fijo de poolSize hilos con nombre. Un pool cacheado
+    // crearía un hilo de plataforma por cada etapa bloqueante, justo lo que los hilos virtuales vienen a evitar.
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String name, int poolSize) {
+        if (NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Si falla la invocación usamos el fallback
+            }
+        }
+        return Executors.newFixedThreadPool(poolSize, new NamedThreadFactory(name, true));
+    }
+
+    private static Method probeVirtualExecutorFactory() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ((ExecutorService) factory.invoke(null)).shutdown();
+            return factory;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,264 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Cache asincrónica para productores supplyAsync como getList(num, sleep).
+//
+// - Guarda el CompletableFuture en vuelo: los llamadores concurrentes de la misma clave comparten una única carga.
+//   Cada llamador recibe su propia copia dependiente, así el que la cancela (por ejemplo Deadline al vencer) no cancela
+//   la carga compartida ni la deja rota para los demás.
+// - Las cargas que fallan (por ejemplo con ProviderException) no quedan cacheadas: el siguiente get vuelve a cargar.
+// - Expiración por tiempo desde que se completó la carga (expireAfterWrite).
+// - Refresh-ahead: pasado refreshAfterWrite, el get devuelve el valor actual y dispara una recarga en segundo plano.
+// - Tamaño máximo con desalojo por frecuencia: entre las entradas más viejas se desaloja la menos pedida según un
+//   count-min sketch (la idea de TinyLFU, simplificada), así una ráfaga de claves nuevas no barre a las populares.
+public class AsyncLoadingCache<K, V> {
+
+    // Cantidad de candidatas (las más viejas) entre las que se elige la víctima
+    private static final int EVICTION_SAMPLE = 4;
+
+    private final class Entry {
+        final K key;
+        final CompletableFuture<V> future;
+        volatile long loadedNanos;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(K key, CompletableFuture<V> future, long loadedNanos) {
+            this.key = key;
+            this.future = future;
+            this.loadedNanos = loadedNanos;
+        }
+
+        boolean isLoaded() {
+            return this.future.isDone() && !this.future.isCompletedExceptionally();
+        }
+    }
+
+    private final Function<? super K, CompletableFuture<V>> loader;
+    private final int maximumSize;
+    private final long expireAfterWriteNanos;
+    private final long refreshAfterWriteNanos;
+
+    private final ConcurrentHashMap<K, Entry> entries = new ConcurrentHashMap<>();
+    // Orden de inserción, para elegir candidatas a desalojo. Cada entrada que sale del mapa (falla, refresh, expiración,
+    // invalidate) también se quita de acá, así la cola no crece más allá de las entradas vigentes.
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final FrequencySketch sketch;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    // expireAfterWrite / refreshAfterWrite <= 0 desactivan la expiración / el refresh
+    public AsyncLoadingCache(Function<? super K, CompletableFuture<V>> loader, int maximumSize, long expireAfterWrite, long refreshAfterWrite,
+            TimeUnit unit) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize debe ser >= 1");
+        }
+        this.loader = loader;
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        this.refreshAfterWriteNanos = unit.toNanos(refreshAfterWrite);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    public CompletableFuture<V> get(K key) {
+        this.sketch.increment(key);
+        long now = System.nanoTime();
+        Entry entry = this.entries.get(key);
+        if (entry != null) {
+            if (entry.future.isCompletedExceptionally() || this.isExpired(entry, now)) {
+                // Una entrada fallida o cancelada nunca se sirve como hit: se descarta y se vuelve a cargar
+                this.discard(entry);
+            } else {
+                this.hits.incrementAndGet();
+                this.maybeRefresh(entry, now);
+                return copyOf(entry.future);
+            }
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        Entry created = new Entry(key, future, now);
+        Entry existing = this.entries.putIfAbsent(key, created);
+        if (existing != null) {
+            // Otro llamador ya está cargando esta clave: se comparte su futuro
+            this.hits.incrementAndGet();
+            return copyOf(existing.future);
+        }
+        this.misses.incrementAndGet();
+        this.insertionOrder.add(created);
+        this.load(created);
+        this.evictIfNeeded();
+        return copyOf(future);
+    }
+
+    public void invalidate(K key) {
+        Entry entry = this.entries.remove(key);
+        if (entry != null) {
+            this.insertionOrder.remove(entry);
+        }
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    public long getLoadFailureCount() {
+        return this.loadFailures.get();
+    }
+
+    public long getEvictionCount() {
+        return this.evictions.get();
+    }
+
+    public long getRefreshCount() {
+        return this.refreshes.get();
+    }
+
+    // Entradas en la cola de desalojo (para tests)
+    int queuedCount() {
+        return this.insertionOrder.size();
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private static <V> CompletableFuture<V> copyOf(CompletableFuture<V> shared) {
+        return shared.thenApply(Function.identity());
+    }
+
+    private void discard(Entry entry) {
+        if (this.entries.remove(entry.key, entry)) {
+            this.insertionOrder.remove(entry);
+        }
+    }
+
+    private void load(Entry entry) {
+        CompletableFuture<V> loading;
+        try {
+            loading = this.loader.apply(entry.key);
+        } catch (Throwable e) {
+            loading = new CompletableFuture<>();
+            loading.completeExceptionally(e);
+        }
+        loading.whenComplete((value, ex) ->
+            {
+                if (ex != null) {
+                    // Las fallas no se cachean
+                    this.loadFailures.incrementAndGet();
+                    this.discard(entry);
+                    entry.future.completeExceptionally(ex);
+                } else {
+                    entry.loadedNanos = System.nanoTime();
+                    entry.future.complete(value);
+                }
+            });
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return this.expireAfterWriteNanos > 0 && entry.isLoaded() && now - entry.loadedNanos >= this.expireAfterWriteNanos;
+    }
+
+    private void maybeRefresh(Entry entry, long now) {
+        if (this.refreshAfterWriteNanos <= 0 || !entry.isLoaded() || now - entry.loadedNanos < this.refreshAfterWriteNanos
+                || !entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        this.refreshes.incrementAndGet();
+        CompletableFuture<V> reloading;
+        try {
+            reloading = this.loader.apply(entry.key);
+        } catch (Throwable e) {
+            entry.refreshing.set(false);
+            return;
+        }
+        reloading.whenComplete((value, ex) ->
+            {
+                if (ex != null) {
+                    // Si falla el refresh se sigue sirviendo el valor anterior hasta que expire
+                    entry.refreshing.set(false);
+                    return;
+                }
+                Entry refreshed = new Entry(entry.key, CompletableFuture.completedFuture(value), System.nanoTime());
+                if (this.entries.replace(entry.key, entry, refreshed)) {
+                    this.insertionOrder.remove(entry);
+                    this.insertionOrder.add(refreshed);
+                }
+            });
+    }
+
+    private void evictIfNeeded() {
+        if (this.entries.size() <= this.maximumSize || !this.evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            while (this.entries.size() > this.maximumSize) {
+                Entry victim = this.pickVictim();
+                if (victim == null) {
+                    return;
+                }
+                if (this.entries.remove(victim.key, victim)) {
+                    this.evictions.incrementAndGet();
+                }
+            }
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    // Toma hasta EVICTION_SAMPLE entradas vigentes y ya cargadas de la cabeza de la cola y desaloja la menos frecuente;
+    // las demás vuelven al final de la cola. Las cargas en vuelo no se desalojan.
+    private Entry pickVictim() {
+        Entry victim = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        int sampled = 0;
+        int scanned = 0;
+        int limit = this.insertionOrder.size();
+        ArrayDeque<Entry> kept = new ArrayDeque<>(EVICTION_SAMPLE);
+        while (sampled < EVICTION_SAMPLE && scanned++ < limit) {
+            Entry candidate = this.insertionOrder.poll();
+            if (candidate == null) {
+                break;
+            }
+            if (this.entries.get(candidate.key) != candidate) {
+                continue;
+            }
+            if (!candidate.future.isDone()) {
+                this.insertionOrder.add(candidate);
+                continue;
+            }
+            sampled++;
+            int frequency = this.sketch.frequency(candidate.key);
+            if (frequency < victimFrequency) {
+                if (victim != null) {
+                    kept.add(victim);
+                }
+                victim = candidate;
+                victimFrequency = frequency;
+            } else {
+                kept.add(candidate);
+            }
+        }
+        this.insertionOrder.addAll(kept);
+        return victim;
+    }
+
+}
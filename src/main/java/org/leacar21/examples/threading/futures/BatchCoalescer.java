@@ -0,0 +1,127 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Junta pedidos individuales por clave en una única llamada masiva, al estilo DataLoader.
+//
+// El primer load de un lote abre una ventana de 'window'; las claves que llegan durante la ventana (o hasta completar
+// maxBatchSize, lo que ocurra primero) se envían juntas al bulkLoader, y cada llamador recibe su valor del resultado
+// compartido. Las claves repetidas dentro de un lote comparten el mismo futuro y se piden una sola vez.
+//
+// El bulkLoader se invoca en el hilo que cierra el lote (el timer de Delays o el llamador que completa el tamaño), por
+// lo que debe devolver enseguida un futuro y hacer el trabajo real en un executor. Si el resultado no trae una clave,
+// su futuro falla con NoSuchElementException; si el bulkLoader falla, fallan todos los futuros del lote.
+public class BatchCoalescer<K, V> {
+
+    private final class Batch {
+        final Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+        ScheduledFuture<?> timer;
+    }
+
+    private final Function<Set<K>, CompletableFuture<Map<K, V>>> bulkLoader;
+    private final int maxBatchSize;
+    private final long windowNanos;
+
+    // Lote abierto; se reemplaza al cerrarse. Protegido por el lock del coalescer.
+    private Batch current;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    public BatchCoalescer(Function<Set<K>, CompletableFuture<Map<K, V>>> bulkLoader, int maxBatchSize, long window, TimeUnit unit) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize debe ser >= 1");
+        }
+        this.bulkLoader = bulkLoader;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = unit.toNanos(window);
+    }
+
+    public CompletableFuture<V> load(K key) {
+        this.requestCount.incrementAndGet();
+        Batch full = null;
+        CompletableFuture<V> future;
+        synchronized (this) {
+            Batch batch = this.current;
+            if (batch == null) {
+                batch = new Batch();
+                this.current = batch;
+                Batch scheduled = batch;
+                batch.timer = Delays.schedule(() -> this.flush(scheduled), this.windowNanos, TimeUnit.NANOSECONDS);
+            }
+            future = batch.pending.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                batch.pending.put(key, future);
+                if (batch.pending.size() >= this.maxBatchSize) {
+                    this.current = null;
+                    batch.timer.cancel(false);
+                    full = batch;
+                }
+            }
+        }
+        if (full != null) {
+            this.dispatch(full);
+        }
+        return future;
+    }
+
+    // Pedidos recibidos (incluidas las claves repetidas)
+    public long getRequestCount() {
+        return this.requestCount.get();
+    }
+
+    // Llamadas hechas al bulkLoader
+    public long getBatchCount() {
+        return this.batchCount.get();
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private void flush(Batch batch) {
+        synchronized (this) {
+            if (this.current != batch) {
+                // Ya se cerró por tamaño
+                return;
+            }
+            this.current = null;
+        }
+        this.dispatch(batch);
+    }
+
+    private void dispatch(Batch batch) {
+        this.batchCount.incrementAndGet();
+        Map<K, CompletableFuture<V>> pending = batch.pending;
+        CompletableFuture<Map<K, V>> results;
+        try {
+            results = this.bulkLoader.apply(Collections.unmodifiableSet(pending.keySet()));
+        } catch (Throwable e) {
+            results = new CompletableFuture<>();
+            results.completeExceptionally(e);
+        }
+        results.whenComplete((values, ex) ->
+            {
+                Throwable error = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                for (Map.Entry<K, CompletableFuture<V>> entry : pending.entrySet()) {
+                    if (error != null) {
+                        entry.getValue().completeExceptionally(error);
+                    } else if (values == null || !values.containsKey(entry.getKey())) {
+                        entry.getValue().completeExceptionally(new NoSuchElementException("Sin resultado para la clave " + entry.getKey()));
+                    } else {
+                        entry.getValue().complete(values.get(entry.getKey()));
+                    }
+                }
+            });
+    }
+
+}
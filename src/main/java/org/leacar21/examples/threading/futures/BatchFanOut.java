@@ -0,0 +1,142 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fan-out acotado sobre muchas claves enteras con un único futuro de resultado.
+// - Como máximo maxConcurrency cargas en vuelo: cada "carril" lanza la siguiente clave pendiente cuando termina la suya.
+// - Los resultados son int[] primitivos y se concatenan en el orden de las claves (sin List<Integer> ni boxing).
+// - Cada resultado parcial se informa al listener apenas llega, sin esperar a las demás claves.
+// - Si una carga (o el listener) falla, el futuro de resultado falla y no se lanzan más claves.
+public final class BatchFanOut {
+
+    // Carga asincrónica de los valores de una clave
+    @FunctionalInterface
+    public interface IntKeyLoader {
+        CompletableFuture<int[]> load(int key);
+    }
+
+    // Recibe cada resultado parcial en el hilo que completó la carga
+    @FunctionalInterface
+    public interface PartialResultListener {
+        void onResult(int index, int key, int[] values);
+    }
+
+    private static final PartialResultListener NO_LISTENER = (index, key, values) ->
+        {
+        };
+
+    private final int[] keys;
+    private final IntKeyLoader loader;
+    private final PartialResultListener listener;
+    private final int[][] results;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final CompletableFuture<int[]> result = new CompletableFuture<>();
+
+    private BatchFanOut(int[] keys, IntKeyLoader loader, PartialResultListener listener) {
+        this.keys = keys;
+        this.loader = loader;
+        this.listener = listener;
+        this.results = new int[keys.length][];
+        this.remaining = new AtomicInteger(keys.length);
+    }
+
+    public static CompletableFuture<int[]> loadAll(int[] keys, int maxConcurrency, IntKeyLoader loader) {
+        return loadAll(keys, maxConcurrency, loader, NO_LISTENER);
+    }
+
+    public static CompletableFuture<int[]> loadAll(int[] keys, int maxConcurrency, IntKeyLoader loader, PartialResultListener listener) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency debe ser >= 1");
+        }
+        BatchFanOut batch = new BatchFanOut(keys.clone(), loader, listener);
+        if (keys.length == 0) {
+            batch.result.complete(new int[0]);
+        }
+        int lanes = Math.min(maxConcurrency, keys.length);
+        for (int i = 0; i < lanes; i++) {
+            batch.drive();
+        }
+        return batch.result;
+    }
+
+    // Lanza claves mientras las cargas terminen sincrónicamente (futuros ya completos); cuando una queda pendiente, el
+    // carril continúa desde su callback. El bucle evita que una cadena de futuros completos crezca el stack.
+    private void drive() {
+        while (!this.result.isDone()) {
+            int index = this.next.getAndIncrement();
+            if (index >= this.keys.length) {
+                return;
+            }
+            CompletableFuture<int[]> load;
+            try {
+                load = this.loader.load(this.keys[index]);
+                if (load == null) {
+                    throw new NullPointerException("El loader devolvió un futuro null para la clave " + this.keys[index]);
+                }
+            } catch (RuntimeException e) {
+                this.result.completeExceptionally(e);
+                return;
+            }
+            if (!load.isDone()) {
+                load.whenComplete((values, ex) ->
+                    {
+                        if (this.onLoaded(index, values, ex)) {
+                            this.drive();
+                        }
+                    });
+                return;
+            }
+            int[] values = null;
+            Throwable ex = null;
+            try {
+                values = load.join();
+            } catch (CancellationException | CompletionException e) {
+                ex = e;
+            }
+            if (!this.onLoaded(index, values, ex)) {
+                return;
+            }
+        }
+    }
+
+    private boolean onLoaded(int index, int[] values, Throwable ex) {
+        if (ex == null && values == null) {
+            ex = new NullPointerException("La carga de la clave " + this.keys[index] + " devolvió null");
+        }
+        if (ex != null) {
+            this.result.completeExceptionally(ex);
+            return false;
+        }
+        this.results[index] = values;
+        try {
+            this.listener.onResult(index, this.keys[index], values);
+        } catch (RuntimeException e) {
+            // Un listener que falla hace fallar el lote: si no, el carril se cortaría y el resultado nunca se completaría
+            this.result.completeExceptionally(e);
+            return false;
+        }
+        if (this.remaining.decrementAndGet() == 0) {
+            this.result.complete(this.merge());
+        }
+        return true;
+    }
+
+    private int[] merge() {
+        int size = 0;
+        for (int[] values : this.results) {
+            size += values.length;
+        }
+        int[] merged = new int[size];
+        int offset = 0;
+        for (int[] values : this.results) {
+            System.arraycopy(values, 0, merged, offset, values.length);
+            offset += values.length;
+        }
+        return merged;
+    }
+
+}
@@ -0,0 +1,173 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Junta los resultados de muchos futuros en el orden en que terminan, como un CompletionService pero para
+// CompletableFuture. A diferencia de hacer get sobre cada futuro en orden, un futuro lento no retiene a los que ya
+// terminaron detrás de él.
+//
+// Cada futuro, al completarse, encola su resultado en una cola enlazada lock-free de múltiples productores y un único
+// consumidor (Vyukov): encolar es un getAndSet sobre la cola, sin locks ni reintentos, así que el costo no crece con la
+// cantidad de futuros. Un único hilo consume los resultados por lotes (drain / await), esperando según WaitStrategy.
+//
+// Solo un hilo a la vez puede consumir.
+public class CompletionCollector<T> {
+
+    // Resultado de un futuro: el índice es el orden de submit, para saber a qué pedido corresponde
+    public static final class Completion<T> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Completion, Completion> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Completion.class, Completion.class, "next");
+
+        private final long index;
+        private final T value;
+        private final Throwable error;
+        private volatile Completion<T> next;
+
+        Completion(long index, T value, Throwable error) {
+            this.index = index;
+            this.value = value;
+            this.error = error;
+        }
+
+        public long getIndex() {
+            return this.index;
+        }
+
+        public T getValue() {
+            return this.value;
+        }
+
+        public Throwable getError() {
+            return this.error;
+        }
+
+        public boolean isSuccess() {
+            return this.error == null;
+        }
+
+        @Override
+        public String toString() {
+            return "Completion[" + this.index + ", " + (this.error == null ? String.valueOf(this.value) : "error=" + this.error) + "]";
+        }
+    }
+
+    private final WaitStrategy waitStrategy;
+
+    // Último nodo encolado; los productores lo reemplazan con getAndSet
+    private final AtomicReference<Completion<T>> tail;
+    // Nodo ya consumido cuyo next es el próximo a leer; solo lo toca el consumidor
+    private Completion<T> head;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private volatile Thread waiter;
+
+    public CompletionCollector() {
+        this(WaitStrategy.PARK);
+    }
+
+    public CompletionCollector(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        Completion<T> stub = new Completion<>(-1, null, null);
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+    }
+
+    // Registra el futuro y devuelve su índice
+    public long submit(CompletableFuture<? extends T> future) {
+        long index = this.submitted.getAndIncrement();
+        future.whenComplete((value, ex) -> this.offer(new Completion<>(index, value, unwrap(ex))));
+        return index;
+    }
+
+    // Resultados registrados que todavía no se consumieron (en vuelo o en la cola)
+    public long getPending() {
+        return this.submitted.get() - this.consumed.get();
+    }
+
+    // Consume sin esperar hasta maxBatch resultados; devuelve cuántos consumió
+    public int drain(Consumer<? super Completion<T>> consumer, int maxBatch) {
+        int count = 0;
+        Completion<T> completion;
+        while (count < maxBatch && (completion = this.poll()) != null) {
+            consumer.accept(completion);
+            count++;
+        }
+        return count;
+    }
+
+    // Espera a que haya al menos un resultado (o a que venza el timeout) y consume hasta maxBatch; 0 si venció
+    public int await(Consumer<? super Completion<T>> consumer, int maxBatch, long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int count;
+        while ((count = this.drain(consumer, maxBatch)) == 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return 0;
+            }
+            if (this.waitStrategy == WaitStrategy.PARK) {
+                // Se publica el hilo antes de volver a mirar la cola, así un productor que encola después lo despierta
+                this.waiter = Thread.currentThread();
+                if (this.isEmpty()) {
+                    this.waitStrategy.idle(remaining);
+                }
+                this.waiter = null;
+            } else {
+                this.waitStrategy.idle(remaining);
+            }
+        }
+        return count;
+    }
+
+    // Consume todos los resultados registrados hasta ahora, por lotes; false si venció el timeout antes
+    public boolean awaitAll(Consumer<? super Completion<T>> consumer, int maxBatch, long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (this.getPending() > 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || this.await(consumer, maxBatch, remaining, TimeUnit.NANOSECONDS) == 0) {
+                return this.getPending() == 0;
+            }
+        }
+        return true;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private void offer(Completion<T> completion) {
+        Completion<T> previous = this.tail.getAndSet(completion);
+        // Entre el getAndSet y este lazySet el nodo está "en tránsito": el consumidor lo ve recién cuando se enlaza
+        Completion.NEXT.lazySet(previous, completion);
+        Thread w = this.waiter;
+        if (w != null) {
+            LockSupport.unpark(w);
+        }
+    }
+
+    private Completion<T> poll() {
+        Completion<T> next = this.head.next;
+        if (next == null) {
+            return null;
+        }
+        this.head = next;
+        this.consumed.incrementAndGet();
+        return next;
+    }
+
+    private boolean isEmpty() {
+        return this.head.next == null;
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.leacar21.examples.threading.futures;
+
+// Dónde corre la continuación de un Pipeline cuando se completa su origen (ver Pipeline.run(Executor, ContinuationPolicy)).
+public enum ContinuationPolicy {
+
+    // En el hilo que completa el origen, a través del Trampoline: sin salto de hilo ni paso por la cola del executor.
+    // Solo para etapas cortas, porque ocupan el hilo de quien completó (un hilo del pool, el timer de Delays, etc.).
+    INLINE,
+
+    // Siempre en el executor, como whenCompleteAsync(..., executor): un salto de hilo por continuación.
+    ASYNC,
+
+    // Inline si las etapas del pipeline son CPU (cortas) y el hilo actual no tiene ya muchas continuaciones acumuladas
+    // en su Trampoline; si no, en el executor.
+    ADAPTIVE
+
+}
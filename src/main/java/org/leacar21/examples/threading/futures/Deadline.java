@@ -0,0 +1,158 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Tiempo límite absoluto de un pedido, que se pasa a lo largo de una cadena de futuros en lugar de aplicar un timeout
+// fijo solo en el get final.
+//
+// - guard(...) envuelve la función de una etapa (thenApply, thenCompose, thenCombine, supplyAsync) para que falle
+//   rápido con DeadlineExceededException si al momento de ejecutarse ya no queda tiempo.
+// - bind(...) liga un futuro al deadline: si vence antes de completarse, el futuro devuelto falla con
+//   DeadlineExceededException y el futuro original se cancela, así las etapas que dependen de él y que todavía no
+//   arrancaron ya no se ejecutan.
+// - supplyAsync(...) además interrumpe el trabajo que ya está corriendo cuando vence el deadline.
+//
+// Cancelar un CompletableFuture nunca interrumpe su cuerpo: cancel(true) sobre un CompletableFuture.supplyAsync que ya
+// arrancó solo lo marca como cancelado, y la tarea sigue ocupando el hilo hasta terminar. Por eso bind y get solo
+// ahorran las etapas pendientes; para liberar el hilo la tarea tiene que correr como en supplyAsync de esta clase
+// (sobre una FutureTask) y responder a la interrupción.
+public final class Deadline {
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    public long remaining(TimeUnit unit) {
+        return unit.convert(Math.max(0, this.deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return this.deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public void check() {
+        if (this.isExpired()) {
+            throw new DeadlineExceededException("Deadline vencido");
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    public <T> Supplier<T> guard(Supplier<T> supplier) {
+        return () ->
+            {
+                this.check();
+                return supplier.get();
+            };
+    }
+
+    public <T, R> Function<T, R> guard(Function<T, R> function) {
+        return value ->
+            {
+                this.check();
+                return function.apply(value);
+            };
+    }
+
+    public <T, U, R> BiFunction<T, U, R> guard(BiFunction<T, U, R> function) {
+        return (value1, value2) ->
+            {
+                this.check();
+                return function.apply(value1, value2);
+            };
+    }
+
+    // Para thenCompose: además de chequear antes de ejecutar, liga el futuro interno al deadline
+    public <T, R> Function<T, CompletableFuture<R>> guardCompose(Function<T, CompletableFuture<R>> function) {
+        return value ->
+            {
+                this.check();
+                return this.bind(function.apply(value));
+            };
+    }
+
+    public <T> CompletableFuture<T> bind(CompletableFuture<T> future) {
+        CompletableFuture<T> bound = new CompletableFuture<>();
+        if (this.isExpired()) {
+            future.cancel(true);
+            bound.completeExceptionally(new DeadlineExceededException("Deadline vencido"));
+            return bound;
+        }
+        // Al vencer primero se cancela el original y después falla el ligado, así quien observa el fallo ya ve el
+        // trabajo abandonado como cancelado
+        ScheduledFuture<?> expiry = Delays.schedule(() ->
+            {
+                future.cancel(true);
+                bound.completeExceptionally(new DeadlineExceededException("Deadline vencido"));
+            } , this.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        future.whenComplete((value, ex) ->
+            {
+                expiry.cancel(false);
+                if (future.isCancelled() && this.isExpired()) {
+                    bound.completeExceptionally(new DeadlineExceededException("Deadline vencido"));
+                } else if (ex != null) {
+                    bound.completeExceptionally(ex);
+                } else {
+                    bound.complete(value);
+                }
+            });
+        // Si el llamador abandona el futuro ligado, también se abandona el original
+        bound.whenComplete((value, ex) ->
+            {
+                if (bound.isCancelled()) {
+                    future.cancel(true);
+                }
+            });
+        return bound;
+    }
+
+    // supplyAsync con chequeo del deadline antes de ejecutar y ligado al deadline. La tarea corre dentro de una FutureTask:
+    // si el deadline vence (o se cancela el resultado) mientras corre, se interrumpe el hilo que la está ejecutando.
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        Supplier<T> guarded = this.guard(supplier);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() ->
+            {
+                try {
+                    result.complete(guarded.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            } , null);
+        result.whenComplete((value, ex) ->
+            {
+                if (result.isCancelled()) {
+                    task.cancel(true);
+                }
+            });
+        executor.execute(task);
+        return this.bind(result);
+    }
+
+    // get bloqueante que espera solo el tiempo que le queda al deadline. Al vencer cancela el futuro, lo que evita las
+    // etapas pendientes pero no interrumpe una tarea que ya está corriendo
+    public <T> T get(CompletableFuture<T> future) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            return future.get(this.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+}
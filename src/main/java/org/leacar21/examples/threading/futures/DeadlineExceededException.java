@@ -0,0 +1,13 @@
+package org.leacar21.examples.threading.futures;
+
+// Se lanza (o completa un futuro) cuando se agotó el tiempo disponible de un Deadline.
+// Es unchecked para poder lanzarla desde las lambdas de las etapas.
+public class DeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+}
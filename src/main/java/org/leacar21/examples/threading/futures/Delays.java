@@ -0,0 +1,81 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.leacar21.examples.threading.executors.NamedThreadFactory;
+
+// Esperas no bloqueantes. En lugar de hacer Thread.sleep dentro de una tarea (que ocupa un hilo del pool durante toda la
+// espera), delay devuelve un CompletableFuture que completa un único hilo timer compartido. Un solo hilo puede atender
+// decenas de miles de esperas pendientes, y sobre el futuro se encadenan las etapas con thenApplyAsync/thenComposeAsync.
+//
+// Importante: las etapas NO async encadenadas directamente sobre delay corren en el hilo timer; el trabajo real debe ir
+// con las variantes Async y un executor (como hace supplyAfter).
+public final class Delays {
+
+    private static final ScheduledThreadPoolExecutor TIMER = newTimer();
+
+    private Delays() {
+    }
+
+    // Futuro que se completa luego de la duración indicada. Cancelarlo cancela la espera en el timer.
+    public static CompletableFuture<Void> delay(long duration, TimeUnit unit) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (duration <= 0) {
+            future.complete(null);
+            return future;
+        }
+        ScheduledFuture<?> scheduled = TIMER.schedule(() -> future.complete(null), duration, unit);
+        future.whenComplete((v, e) ->
+            {
+                if (future.isCancelled()) {
+                    scheduled.cancel(false);
+                }
+            });
+        return future;
+    }
+
+    public static CompletableFuture<Void> delayMillis(long millis) {
+        return delay(millis, TimeUnit.MILLISECONDS);
+    }
+
+    public static CompletableFuture<Void> delayNanos(long nanos) {
+        return delay(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Equivalente a supplyAsync(supplier, executor) pero arrancando luego de la espera, sin ocupar un hilo del executor
+    // mientras se espera. Cancelar el futuro devuelto también cancela la espera pendiente.
+    public static <T> CompletableFuture<T> supplyAfter(long duration, TimeUnit unit, Supplier<T> supplier, Executor executor) {
+        CompletableFuture<Void> delay = delay(duration, unit);
+        CompletableFuture<T> result = delay.thenApplyAsync(v -> supplier.get(), executor);
+        result.whenComplete((v, e) ->
+            {
+                if (result.isCancelled()) {
+                    delay.cancel(false);
+                }
+            });
+        return result;
+    }
+
+    // Ejecuta la acción en el hilo timer luego de la espera. Pensado para acciones cortas (completar o cancelar futuros).
+    public static ScheduledFuture<?> schedule(Runnable action, long duration, TimeUnit unit) {
+        return TIMER.schedule(action, duration, unit);
+    }
+
+    // Cantidad de esperas pendientes en el timer
+    public static int pendingDelays() {
+        return TIMER.getQueue().size();
+    }
+
+    private static ScheduledThreadPoolExecutor newTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("delays-timer", true));
+        // Las esperas canceladas se quitan de la cola inmediatamente en lugar de quedar hasta su vencimiento
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.Collections;
+import java.util.List;
+
+// Resultado de drenar un FutureTracker: cuántos futuros terminaron dentro del plazo y cuáles se abandonaron (cancelados).
+public class DrainReport {
+
+    private final int completed;
+    private final List<String> abandoned;
+    private final long elapsedMillis;
+
+    public DrainReport(int completed, List<String> abandoned, long elapsedMillis) {
+        this.completed = completed;
+        this.abandoned = Collections.unmodifiableList(abandoned);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getCompleted() {
+        return this.completed;
+    }
+
+    // Nombres de los futuros que no terminaron dentro del plazo
+    public List<String> getAbandoned() {
+        return this.abandoned;
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    public boolean isClean() {
+        return this.abandoned.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "DrainReport[completed=" + this.completed + ", abandoned=" + this.abandoned + ", elapsed=" + this.elapsedMillis + " ms]";
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.leacar21.examples.threading.executors.ExecutionMode;
+import org.leacar21.examples.threading.executors.VirtualThreads;
+
+// Compara cuánto tardan N etapas bloqueantes concurrentes (como las de FeatureExample, que hacen sleep dentro del pool)
+// en cada ExecutionMode. Con el pool fijo de 5 hilos el tiempo total es ~ N / 5 * latencia; con hilos virtuales es
+// ~ la latencia de una sola etapa.
+//
+// Uso: ExecutionModeThroughput [cantidadEtapas] [milisegundosPorEtapa]
+public class ExecutionModeThroughput {
+
+    private static final int POOL_SIZE = 5;
+
+    public static void main(String[] args) {
+        int stages = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long stageMillis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+
+        System.out.println("Hilos virtuales soportados: " + VirtualThreads.isSupported());
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            long elapsed = run(mode, stages, stageMillis);
+            System.out.println(mode + ": " + stages + " etapas de " + stageMillis + " ms en " + elapsed + " ms ("
+                    + (stages * 1000L / Math.max(1, elapsed)) + " etapas/s)");
+        }
+    }
+
+    public static long run(ExecutionMode mode, int stages, long stageMillis) {
+        ExecutorService executor = mode.newExecutor("throughput-" + mode.name().toLowerCase(), POOL_SIZE);
+        try {
+            long start = System.nanoTime();
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[stages];
+            for (int i = 0; i < stages; i++) {
+                futures[i] = CompletableFuture.runAsync(() -> sleepMillis(stageMillis), executor);
+            }
+            CompletableFuture.allOf(futures).join();
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,160 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fan-out estructurado: las tareas se lanzan con fork dentro de un scope y se esperan juntas.
+//
+// A diferencia de CompletableFuture.allOf (que espera a todos aunque uno ya falló y devuelve Void) y anyOf (que devuelve
+// Object y deja ganar a un error):
+// - joinAll devuelve los resultados tipados en el orden de los fork, y ante el primer error falla y cancela al resto.
+// - joinQuorum(k) devuelve los primeros k resultados exitosos (en orden de llegada) y cancela al resto; falla apenas
+//   deja de ser posible llegar a k.
+// - close cancela (con interrupción) todo lo que siga corriendo, así un fan-out fallido no sigue ocupando hilos.
+//
+// Uso: try (FanOutScope<String> scope = new FanOutScope<>(executor)) { scope.fork(...); ...; scope.joinAll().join(); }
+public class FanOutScope<T> implements AutoCloseable {
+
+    private final class Task {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        volatile Future<?> future;
+
+        void cancel() {
+            Future<?> running = this.future;
+            if (running != null) {
+                running.cancel(true);
+            }
+            this.result.cancel(false);
+        }
+    }
+
+    private final ExecutorService executor;
+    private final List<Task> tasks = new ArrayList<>();
+    private boolean joined;
+
+    public FanOutScope(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public synchronized CompletableFuture<T> fork(Callable<T> callable) {
+        if (this.joined) {
+            throw new IllegalStateException("No se puede hacer fork luego de join");
+        }
+        // La tarea se registra recién cuando el executor la aceptó: si submit lanza RejectedExecutionException, el error
+        // llega a quien hizo fork y joinAll no queda esperando un resultado que nunca se completaría
+        Task task = new Task();
+        task.future = this.executor.submit(() ->
+            {
+                if (task.result.isDone()) {
+                    return;
+                }
+                try {
+                    task.result.complete(callable.call());
+                } catch (Throwable e) {
+                    task.result.completeExceptionally(e);
+                }
+            });
+        this.tasks.add(task);
+        return task.result;
+    }
+
+    // Todos los resultados en el orden de los fork; el primer error cancela a los demás
+    public CompletableFuture<List<T>> joinAll() {
+        List<Task> forked = this.join();
+        CompletableFuture<List<T>> all = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(forked.size());
+        if (forked.isEmpty()) {
+            all.complete(Collections.emptyList());
+        }
+        for (Task task : forked) {
+            task.result.whenComplete((value, ex) ->
+                {
+                    if (ex != null) {
+                        if (all.completeExceptionally(ex)) {
+                            this.cancelAll(forked);
+                        }
+                    } else if (remaining.decrementAndGet() == 0) {
+                        List<T> values = new ArrayList<>(forked.size());
+                        for (Task each : forked) {
+                            values.add(each.result.join());
+                        }
+                        all.complete(values);
+                    }
+                });
+        }
+        all.whenComplete((values, ex) ->
+            {
+                if (all.isCancelled()) {
+                    this.cancelAll(forked);
+                }
+            });
+        return all;
+    }
+
+    // Los primeros 'quorum' resultados exitosos, en orden de llegada; el resto se cancela
+    public CompletableFuture<List<T>> joinQuorum(int quorum) {
+        List<Task> forked = this.join();
+        if (quorum < 1 || quorum > forked.size()) {
+            throw new IllegalArgumentException("El quorum debe estar entre 1 y " + forked.size());
+        }
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        List<T> values = new ArrayList<>(quorum);
+        AtomicInteger failures = new AtomicInteger();
+        int tolerableFailures = forked.size() - quorum;
+        for (Task task : forked) {
+            task.result.whenComplete((value, ex) ->
+                {
+                    if (ex != null) {
+                        if (failures.incrementAndGet() > tolerableFailures && result.completeExceptionally(ex)) {
+                            this.cancelAll(forked);
+                        }
+                        return;
+                    }
+                    List<T> reached = null;
+                    synchronized (values) {
+                        if (values.size() < quorum) {
+                            values.add(value);
+                            if (values.size() == quorum) {
+                                reached = new ArrayList<>(values);
+                            }
+                        }
+                    }
+                    if (reached != null && result.complete(reached)) {
+                        this.cancelAll(forked);
+                    }
+                });
+        }
+        return result;
+    }
+
+    // Primer resultado exitoso (quorum de 1), tipado
+    public CompletableFuture<T> joinAny() {
+        return this.joinQuorum(1).thenApply(values -> values.get(0));
+    }
+
+    // Cancela lo que siga corriendo
+    @Override
+    public void close() {
+        this.cancelAll(this.join());
+    }
+
+    private synchronized List<Task> join() {
+        this.joined = true;
+        return new ArrayList<>(this.tasks);
+    }
+
+    private void cancelAll(List<Task> forked) {
+        for (Task task : forked) {
+            if (!task.result.isDone()) {
+                task.cancel();
+            }
+        }
+    }
+
+}
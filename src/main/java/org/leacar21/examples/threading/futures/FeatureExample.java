@@ -1,25 +1,175 @@
 package org.leacar21.examples.threading.futures;
 
 import java.security.ProviderException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-
-public class FeatureExample {
-
-	// Pool fijo con 5 hilos y una cola
-	private final ExecutorService executor = Executors.newFixedThreadPool(5);
-	
-	// Pool con 4 cores iniciales que crece hasta 8 nodos si se llena la cola de largo MAX_VALUE. 
-	private final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(4, 8, 60, TimeUnit.SECONDS, new ArrayBlockingQueue(Integer.MAX_VALUE));
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.leacar21.examples.threading.executors.BoundedExecutors;
+import org.leacar21.examples.threading.executors.ExecutionMode;
+import org.leacar21.examples.threading.executors.RejectionPolicy;
+import org.leacar21.examples.threading.executors.StageExecutors;
+import org.leacar21.examples.threading.executors.StageKind;
+import org.leacar21.examples.threading.metrics.StageMetrics;
+import org.leacar21.examples.threading.resilience.AdaptiveLimiter;
+import org.leacar21.examples.threading.resilience.Bulkhead;
+import org.leacar21.examples.threading.resilience.CircuitBreaker;
+import org.leacar21.examples.threading.resilience.Hedger;
+import org.leacar21.examples.threading.resilience.ProviderGuard;
+import org.leacar21.examples.threading.resilience.Retry;
+import org.leacar21.examples.threading.trace.EventSink;
+import org.leacar21.examples.threading.trace.EventSinks;
+import org.reactivestreams.Publisher;
+
+public class FeatureExample implements AutoCloseable {
+
+	// Cantidad de hilos del pool fijo
+	private static final int POOL_SIZE = 5;
+
+	// Tiempo máximo de un pedido de completableFeatureExample1
+	private static final long SECONDS_TIMEOUT = 20;
+
+	// Demora simulada de las cargas de getListCached y getListCoalesced
+	private static final int CACHED_LIST_SLEEP_SECONDS = 3;
+
+	// Plazo por defecto de close() para que terminen los futuros en vuelo
+	private static final long DRAIN_SECONDS = 30;
+
+	// Pool donde corren las etapas de los ejemplos. Por defecto es un pool fijo con 5 hilos y una cola; con
+	// ExecutionMode.VIRTUAL_THREADS cada etapa corre en su propio hilo virtual (Java 21+).
+	private final ExecutorService executor;
 	
+	// Pool con 4 cores iniciales que crece hasta 8 hilos cuando se llena la cola (acotada a 100 tareas).
+	// Si además se alcanzan los 8 hilos, la tarea la ejecuta el hilo que la envía (backpressure).
+	private final ThreadPoolExecutor threadPoolExecutor = BoundedExecutors.newBoundedExecutor("feature-pool", 4, 8, 100, RejectionPolicy.CALLER_RUNS);
+
+	// Etapas bloqueantes al executor (I/O) y etapas de CPU cortas a un ForkJoinPool del tamaño de los cores
+	private final StageExecutors stages;
+
+	// Futuros en vuelo (incluidos los callbacks que nadie espera), para poder drenarlos al cerrar
+	private final FutureTracker tracker = new FutureTracker();
+
+	// Cache de getList por número: los pedidos concurrentes del mismo número comparten la carga en vuelo, las fallas no se
+	// cachean, los valores expiran a los 5 minutos y se recargan en segundo plano pasado 1 minuto.
+	private final AsyncLoadingCache<Integer, List<Integer>> listCache = new AsyncLoadingCache<>(num -> this.getList(num, CACHED_LIST_SLEEP_SECONDS),
+			1000, 5, 1, TimeUnit.MINUTES);
+
+	// Pedidos de getListCoalesced que llegan dentro de 10 ms (hasta 100 números) se cargan con una sola llamada al proveedor
+	private final BatchCoalescer<Integer, List<Integer>> listBatcher = new BatchCoalescer<>(this::getLists, 100, 10, TimeUnit.MILLISECONDS);
+
+	// Límite adaptativo de cargas en vuelo de getListBatch: arranca en POOL_SIZE y se ajusta entre 1 y 100 según la
+	// latencia; hasta 1000 pedidos pueden esperar lugar como máximo 30 segundos.
+	private final AdaptiveLimiter limiter = new AdaptiveLimiter(POOL_SIZE, 1, 100, 2.0, 1000, 30, TimeUnit.SECONDS);
+
+	// Resiliencia del proveedor de getList: hasta 3 intentos con backoff de 100 ms a 2 s, circuito que se abre con 50% de
+	// error en las últimas 20 llamadas (mínimo 10) durante 30 segundos, y como máximo 10 llamadas en vuelo.
+	private final ProviderGuard providerGuard = new ProviderGuard("Provider Name", new Retry(3, 100, 2000, TimeUnit.MILLISECONDS),
+			new CircuitBreaker("Provider Name", 20, 10, 0.5, 30, TimeUnit.SECONDS, 3), new Bulkhead("Provider Name", 10));
+
+	// Respaldo de completableFeatureHedged tras el p95 de las latencias anteriores (1 segundo hasta tener muestras), con
+	// como máximo 2 intentos. Es un campo para que la ventana de latencias se acumule entre llamadas.
+	private final Hedger hedger;
+
+	// Histogramas de espera en cola, ejecución y demora de callbacks por etapa
+	private final StageMetrics metrics = new StageMetrics();
+
+	// Destino de la traza de las etapas. Por defecto escribe directo en System.out; EventSinks.ringBuffer no bloquea a los
+	// hilos de las etapas y EventSinks.noop desactiva la traza.
+	private final EventSink sink;
+
+	public FeatureExample() {
+		this(ExecutionMode.FIXED_POOL);
+	}
+
+	public FeatureExample(ExecutionMode mode) {
+		this(mode, EventSinks.console());
+	}
+
+	public FeatureExample(ExecutionMode mode, EventSink sink) {
+		this.executor = mode.newExecutor("feature-stage", POOL_SIZE);
+		this.stages = new StageExecutors(this.executor);
+		this.hedger = new Hedger(this.executor, 0.95, 1, TimeUnit.SECONDS, 2);
+		this.sink = sink;
+	}
+
+	public StageMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	// Espera hasta DRAIN_SECONDS a que terminen los futuros en vuelo y apaga los pools
+	@Override
+	public void close() {
+		this.close(DRAIN_SECONDS, TimeUnit.SECONDS);
+	}
+
+	// Espera a que terminen los futuros en vuelo dentro del plazo, cancela los que no llegaron, rechaza los pedidos que
+	// esperan en el limitador, apaga los pools y vacía la traza. Los hilos de los pools son daemon, así que un futuro
+	// abandonado no impide que termine la JVM.
+	public DrainReport close(long timeout, TimeUnit unit) {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		DrainReport report = this.tracker.drain(timeout, unit);
+		this.limiter.rejectQueued();
+		this.executor.shutdown();
+		this.threadPoolExecutor.shutdown();
+		this.stages.shutdown();
+		try {
+			if (!this.executor.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+				this.executor.shutdownNow();
+			}
+			if (!this.threadPoolExecutor.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+				this.threadPoolExecutor.shutdownNow();
+			}
+			if (!this.stages.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+				this.stages.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			this.executor.shutdownNow();
+			this.threadPoolExecutor.shutdownNow();
+			this.stages.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		this.closeSink();
+		return report;
+	}
+
+	private static long remainingNanos(long deadline) {
+		return Math.max(0, deadline - System.nanoTime());
+	}
+
+	// Un sink asíncrono (RingBufferEventSink) tiene eventos pendientes y un hilo consumidor daemon: sin cerrarlo, las
+	// últimas líneas de la traza se pierden cuando termina la JVM
+	private void closeSink() {
+		if (this.sink instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) this.sink).close();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	// Callback que solo loguea el resultado: con ADAPTIVE corre en el hilo que completa el futuro, sin volver a pasar por
+	// la cola del executor como whenCompleteAsync
+	private <T> CompletableFuture<T> logWhenComplete(String name, CompletableFuture<T> future, String template) {
+		return this.track(name, Pipeline.from(future).whenComplete((s, e) -> this.sink.log(template, s)).run(this.executor, ContinuationPolicy.ADAPTIVE));
+	}
+
+	private <T> CompletableFuture<T> track(String name, CompletableFuture<T> future) {
+		return this.tracker.track(name, future);
+	}
 	
     public void completableFeatureBasic() {
 
@@ -56,18 +206,18 @@ public class FeatureExample {
         // runAsync se usa cuando NO se requiere que el procesamiento a ejecutar en paralelo retorne un valor.
         // supplyAsync se utiliza cuando se requiere que el procesamiento a ejecutar en paralelo retorne un valor.
 
-        CompletableFuture<Void> futureRunAsync = CompletableFuture.runAsync(() ->
+        CompletableFuture<Void> futureRunAsync = this.track("futureRunAsync", CompletableFuture.runAsync(() ->
             {
-                System.out.println("Comenzando runAsync...");
+                this.sink.log("Comenzando runAsync...");
                 this.sleepSeconds(3);
-                System.out.println("Terminado runAsync!");
-            } , this.executor);
+                this.sink.log("Terminado runAsync!");
+            } , this.executor));
 
         CompletableFuture<String> futureSupplyAsync = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando supplyAsync...");
+                this.sink.log("Comenzando supplyAsync...");
                 this.sleepSeconds(3);
-                System.out.println("Terminado supplyAsync!");
+                this.sink.log("Terminado supplyAsync!");
                 return "Terminado";
             } , this.executor);
             // Usamos la interfaz ExecutorService para “lanzar” un Callable (con un lambda de Java 8). Para eso necesitamos haber definido el Executor, que es
@@ -77,7 +227,7 @@ public class FeatureExample {
 
         // Para obtener el resultado tenemos siempre la posibilidad de “bloquearnos” en el futuro, llamando al método ‘get‘.
         try {
-            System.out.println("Resultado bloqueando supplyAsync: " + futureSupplyAsync.get());
+            this.sink.log("Resultado bloqueando supplyAsync: {}", futureSupplyAsync.get());
         } catch (InterruptedException | ExecutionException e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
@@ -85,7 +235,30 @@ public class FeatureExample {
 
         // También se nos ofrece un nuevo método ‘getNow‘ el cual lo que hace es, si el futuro se ha completado, devolver el resultado, y si no,
         // devolver un parámetro que le pasamos a ese método
-        System.out.println("Resultado bloqueando supplyAsync: " + futureSupplyAsync.getNow("Todavia no termino el feature"));
+        this.sink.log("Resultado bloqueando supplyAsync: {}", futureSupplyAsync.getNow("Todavia no termino el feature"));
+
+        // FUTUROS PEREZOSOS
+        // supplyAsync arranca apenas se crea el futuro, aunque nadie use el resultado. Con LazyFuture el supplier recién se envía al
+        // executor cuando algo lo necesita (get, join o una continuación); una rama que nunca se pide no se ejecuta.
+        LazyFuture<String> futureLazy = LazyFuture.supplyAsync(() ->
+            {
+                this.sink.log("Comenzando supplyAsync perezoso...");
+                return "Terminado";
+            } , this.executor);
+        this.sink.log("Futuro perezoso lanzado: {}", futureLazy.isStarted());
+        this.sink.log("Resultado perezoso: {}", futureLazy.join());
+
+        // Ojo: pasarlo a acceptEither/applyToEither/anyOf lo lanza enseguida (esos métodos llaman a toCompletableFuture), así que
+        // como perdedor de una carrera no ahorra nada. Lo que sí ahorra es una alternativa que solo se pide si la principal falla.
+        LazyFuture<String> futureFallback = LazyFuture.supplyAsync(() ->
+            {
+                this.sink.log("Comenzando alternativa perezosa...");
+                return "Alternativa";
+            } , this.executor);
+        CompletableFuture<String> futureWithFallback = futureSupplyAsync
+                .handle((ok, ex) -> ex == null ? CompletableFuture.completedFuture(ok) : futureFallback.toCompletableFuture())
+                .thenCompose(Function.identity());
+        this.sink.log("Resultado con alternativa: {} (alternativa lanzada: {})", futureWithFallback.join(), futureFallback.isStarted());
 
         // Pero si ninguna de esas opciones es lo que queremos vease el método completableFeature2 que aparece mas abajo
         // en el que se ven los Listeners o Callbacks
@@ -104,14 +277,14 @@ public class FeatureExample {
         // Ahora vamos a obtener el resultado sin bloquearnos, añadiendo algo así como un listener o callback a nuestro futuro.
         CompletableFuture<String> futureSupplyAsync2 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando supplyAsync...");
+                this.sink.log("Comenzando supplyAsync...");
                 this.sleepSeconds(3);
-                System.out.println("Terminado supplyAsync!");
+                this.sink.log("Terminado supplyAsync!");
                 return "Terminado";
             } , this.executor);
 
-        futureSupplyAsync2.whenCompleteAsync((s, e) -> System.out.println("Resultado supplyAsync: " + s), this.executor);
-        System.out.println("Terminado main thread");
+        this.track("futureSupplyAsync2.whenComplete", futureSupplyAsync2.whenCompleteAsync((s, e) -> this.sink.log("Resultado supplyAsync: {}", s), this.executor));
+        this.sink.log("Terminado main thread");
         // La llamada al método ‘whenCompleteAsync‘ realmente no se bloquea en el futuro. Lo que hace es “registrar”
         // en el futuro que cuando se complete, ejecute esa función lambda. En 's' esta el resultado de la ejecución y en 'e' posibles excepciones
 
@@ -121,21 +294,23 @@ public class FeatureExample {
 
         CompletableFuture<String> futureAsync1 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando supplyAsync for thenApply...");
+                this.sink.log("Comenzando supplyAsync for thenApply...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado supplyAsync for thenApply!");
+                this.sink.log("Terminado supplyAsync for thenApply!");
                 return "Terminado";
             } , this.executor);
 
         CompletableFuture<String> futureApply = futureAsync1.thenApplyAsync(s ->
             {
-                System.out.println("Comenzando applyAsync...");
+                this.sink.log("Comenzando applyAsync...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado applyAsync!");
+                this.sink.log("Terminado applyAsync!");
                 return s.toUpperCase();
-            } , this.executor);
+            } , this.metrics.instrument("callbacks.thenApply", this.executor));
 
-        futureApply.whenCompleteAsync((s, e) -> System.out.println("Resultado applyAsync: " + s), this.executor);
+        // Con StageMetrics se mide por separado cuánto esperó en cola, cuánto corrió cada etapa y cuánto tardó en arrancar
+        // el callback luego de completarse el futuro (ver getMetrics()).
+        this.track("callbacks.whenComplete", this.metrics.onComplete("callbacks.whenComplete", futureApply, (s, e) -> this.sink.log("Resultado applyAsync: {}", s), this.executor));
 
         // -----
 
@@ -145,34 +320,34 @@ public class FeatureExample {
         // thenAccept
         CompletableFuture<String> futureAsync2 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando supplyAsync for thenAccept...");
+                this.sink.log("Comenzando supplyAsync for thenAccept...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado supplyAsync for thenAccept!");
+                this.sink.log("Terminado supplyAsync for thenAccept!");
                 return "Terminado";
             } , this.executor);
 
-        futureAsync2.thenAcceptAsync(s ->
+        this.track("futureAsync2.thenAccept", futureAsync2.thenAcceptAsync(s ->
             {
-                System.out.println("Comenzando thenAccept...");
+                this.sink.log("Comenzando thenAccept...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado thenAccept!");
-                System.out.println("Resultado: " + s);
-            } , this.executor);
+                this.sink.log("Terminado thenAccept!");
+                this.sink.log("Resultado: {}", s);
+            } , this.executor));
 
         // thenRun
         CompletableFuture<Void> futureRun = CompletableFuture.runAsync(() ->
             {
-                System.out.println("Comenzando runAsync for thenRun...");
+                this.sink.log("Comenzando runAsync for thenRun...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado runAsync for thenRun!");
+                this.sink.log("Terminado runAsync for thenRun!");
             } , this.executor);
 
-        futureRun.thenRunAsync(() ->
+        this.track("futureRun.thenRun", futureRun.thenRunAsync(() ->
             {
-                System.out.println("Comenzando thenRun...");
+                this.sink.log("Comenzando thenRun...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado thenRun!");
-            } , this.executor);
+                this.sink.log("Terminado thenRun!");
+            } , this.executor));
 
         // -----
     }
@@ -190,19 +365,19 @@ public class FeatureExample {
 
         CompletableFuture<String> futureAsync1 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando supplyAsync with exception 1...");
+                this.sink.log("Comenzando supplyAsync with exception 1...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado supplyAsync with exception 1!");
+                this.sink.log("Terminado supplyAsync with exception 1!");
                 throw new RuntimeException("Error en el futuro 1");
             } , this.executor);
 
         CompletableFuture<String> futureEx = futureAsync1.exceptionally(e ->
             {
-                System.out.println("Resultado con excepción 1!! " + e.getMessage());
+                this.sink.log("Resultado con excepción 1!! {}", e.getMessage());
                 return "StringPorDefecto1";
             });
 
-        futureEx.whenCompleteAsync((s, e) -> System.out.println("Resultado futureEx 1: " + s), this.executor);
+        this.logWhenComplete("futureEx.whenComplete", futureEx, "Resultado futureEx 1: {}");
 
         // --------------------------------------------------------------------------------
 
@@ -212,43 +387,43 @@ public class FeatureExample {
 
         CompletableFuture<String> futureAsync2 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando supplyAsync with exception 2...");
+                this.sink.log("Comenzando supplyAsync with exception 2...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado supplyAsync with exception 2!");
+                this.sink.log("Terminado supplyAsync with exception 2!");
                 throw new RuntimeException("Error en el futuro 2");
             } , this.executor);
 
         CompletableFuture<String> handledFuture = futureAsync2.handleAsync((s, e) ->
             {
                 if (e != null) {
-                    System.out.println("Resultado con excepción 2!! " + e.getMessage());
+                    this.sink.log("Resultado con excepción 2!! {}", e.getMessage());
                     return "StringPorDefecto2";
                 } else {
-                    System.out.println("Resultado2: " + s);
+                    this.sink.log("Resultado2: {}", s);
                     return s;
                 }
             } , this.executor);
 
-        handledFuture.whenCompleteAsync((s, e) -> System.out.println("Resultado handle 2: " + s), this.executor);
+        this.logWhenComplete("handledFuture.whenComplete", handledFuture, "Resultado handle 2: {}");
 
         // *** whenComplete: con este método que ya se explicó podemos hacer algo parecido al ‘handle’, dado que la lambda que registra tiene también los dos
         // parámetros.
         CompletableFuture<String> futureAsync = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando supplyAsync with exception 3...");
+                this.sink.log("Comenzando supplyAsync with exception 3...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado supplyAsync with exception 3!");
+                this.sink.log("Terminado supplyAsync with exception 3!");
                 throw new RuntimeException("Error en el futuro 3");
             } , this.executor);
 
-        futureAsync.whenCompleteAsync((s, e) ->
+        this.track("futureAsync.whenComplete", futureAsync.whenCompleteAsync((s, e) ->
             {
                 if (e != null) {
-                    System.out.println("Resultado con excepción 3!! " + e);
+                    this.sink.log("Resultado con excepción 3!! {}", e);
                 } else {
-                    System.out.println("Resultado applyAsync 3: " + s);
+                    this.sink.log("Resultado applyAsync 3: {}", s);
                 }
-            } , this.executor);
+            } , this.executor));
 
     }
 
@@ -266,21 +441,21 @@ public class FeatureExample {
 
         CompletableFuture<String> futureA11 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando supplyAsync for thenCompose...");
+                this.sink.log("Comenzando supplyAsync for thenCompose...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado supplyAsync for thenCompose!");
+                this.sink.log("Terminado supplyAsync for thenCompose!");
                 return "Terminado";
             } , this.executor);
 
         CompletableFuture<String> fCompose = futureA11.thenComposeAsync(s -> CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando thenCompose...");
+                this.sink.log("Comenzando thenCompose...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado thenCompose!");
+                this.sink.log("Terminado thenCompose!");
                 return s.concat(" + Terminado other");
             } , this.executor), this.executor);
 
-        fCompose.whenCompleteAsync((s, e) -> System.out.println("Resultado thenCompose: " + s), this.executor);
+        this.logWhenComplete("fCompose.whenComplete", fCompose, "Resultado thenCompose: {}");
 
         // --------------------------------------------------------------------------------
 
@@ -289,27 +464,30 @@ public class FeatureExample {
 
         CompletableFuture<String> futureA12 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future1 for thenCombine...");
+                this.sink.log("Comenzando future1 for thenCombine...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado future1 for thenCombine!");
+                this.sink.log("Terminado future1 for thenCombine!");
                 return "Terminado";
             } , this.executor);
 
         CompletableFuture<String> futureB12 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future2 for thenCombine...");
+                this.sink.log("Comenzando future2 for thenCombine...");
                 this.sleepSeconds(1);
-                System.out.println("Terminado future2 for thenCombine!");
+                this.sink.log("Terminado future2 for thenCombine!");
                 return "Terminado other";
             } , this.executor);
 
-        CompletableFuture<String> fCombine = futureA12.thenCombineAsync(futureB12, (s1, s2) ->
+        // El merge 's1 + s2' es trabajo de CPU corto: con StageExecutors corre en el pool de CPU (o inline si los dos futuros
+        // ya terminaron) en lugar de hacer un salto más por la cola del pool de I/O. Equivale a
+        // futureA12.thenCombineAsync(futureB12, ..., executor) con el executor elegido según el tipo de etapa.
+        CompletableFuture<String> fCombine = this.stages.thenCombine(futureA12, futureB12, StageKind.CPU, (s1, s2) ->
             {
-                System.out.println("En el thenCombine, recibidos results: " + s1 + " " + s2);
+                this.sink.log("En el thenCombine, recibidos results: {} {}", s1, s2);
                 return s1 + s2;
-            } , this.executor);
+            });
 
-        fCombine.whenCompleteAsync((s, e) -> System.out.println("Resultado thenCombine: " + s), this.executor);
+        this.logWhenComplete("fCombine.whenComplete", fCombine, "Resultado thenCombine: {}");
 
         // *** thenAcceptBoth y runAfterBoth: Muy similares al ‘thenCombine’, excepto que no generan un nuevo futuro,
         // simplemente ejecutan la lambda cuando los dos futuros terminen. Es como un ‘whenComplete‘ pero esperando dos futuros:
@@ -317,38 +495,38 @@ public class FeatureExample {
         // thenAcceptBoth
         CompletableFuture<String> futureA13 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future1 for thenAcceptBoth...");
+                this.sink.log("Comenzando future1 for thenAcceptBoth...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado future1 for thenAcceptBoth!");
+                this.sink.log("Terminado future1 for thenAcceptBoth!");
                 return "Terminado";
             } , this.executor);
 
         CompletableFuture<String> futureB13 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future2 for thenAcceptBoth...");
+                this.sink.log("Comenzando future2 for thenAcceptBoth...");
                 this.sleepSeconds(1);
-                System.out.println("Terminado future2 for thenAcceptBoth!");
+                this.sink.log("Terminado future2 for thenAcceptBoth!");
                 return "Terminado other";
             } , this.executor);
 
-        futureA13.thenAcceptBothAsync(futureB13, (s1, s2) -> System.out.println("En el thenAcceptBoth, recibidos results:" + s1 + " " + s2), this.executor);
+        this.track("futureA13.thenAcceptBoth", futureA13.thenAcceptBothAsync(futureB13, (s1, s2) -> this.sink.log("En el thenAcceptBoth, recibidos results:{} {}", s1, s2), this.executor));
 
         // runAfterBoth
         CompletableFuture<Void> futureA23 = CompletableFuture.runAsync(() ->
             {
-                System.out.println("Comenzando future1 for runAfterBoth...");
+                this.sink.log("Comenzando future1 for runAfterBoth...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado future1 for runAfterBoth!");
+                this.sink.log("Terminado future1 for runAfterBoth!");
             } , this.executor);
 
         CompletableFuture<Void> futureB23 = CompletableFuture.runAsync(() ->
             {
-                System.out.println("Comenzando future2 for runAfterBoth...");
+                this.sink.log("Comenzando future2 for runAfterBoth...");
                 this.sleepSeconds(1);
-                System.out.println("Terminado future2 for runAfterBoth!");
+                this.sink.log("Terminado future2 for runAfterBoth!");
             } , this.executor);
 
-        futureA23.runAfterBothAsync(futureB23, () -> System.out.println("En el runAfterBoth, futuros terminados."), this.executor);
+        this.track("futureA23.runAfterBoth", futureA23.runAfterBothAsync(futureB23, () -> this.sink.log("En el runAfterBoth, futuros terminados."), this.executor));
 
         // *** acceptEither y runAfterEither: En algunos casos en que tengamos dos futuros nos interesará hacer algo cuando uno
         // de los dos termine, el primero que lo haga. Para eso están estos dos métodos:
@@ -356,126 +534,178 @@ public class FeatureExample {
         // acceptEither
         CompletableFuture<String> futureA14 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future1 for acceptEither...");
+                this.sink.log("Comenzando future1 for acceptEither...");
                 this.sleepSeconds(3);
-                System.out.println("Terminado future1 for acceptEither!");
+                this.sink.log("Terminado future1 for acceptEither!");
                 return "Segundo";
             } , this.executor);
 
         CompletableFuture<String> futureB14 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future2 for acceptEither...");
+                this.sink.log("Comenzando future2 for acceptEither...");
                 this.sleepSeconds(1);
-                System.out.println("Terminado future2 for acceptEither!");
+                this.sink.log("Terminado future2 for acceptEither!");
                 return "Primero";
             } , this.executor);
 
-        futureA14.acceptEitherAsync(futureB14, (s) -> System.out.println("En el acceptEither, recibido el primer resultado: " + s), this.executor);
+        this.track("futureA14.acceptEither", futureA14.acceptEitherAsync(futureB14, (s) -> this.sink.log("En el acceptEither, recibido el primer resultado: {}", s), this.executor));
 
         // runAfterEither
         CompletableFuture<Void> futureA24 = CompletableFuture.runAsync(() ->
             {
-                System.out.println("Comenzando future1 for runAfterEither...");
+                this.sink.log("Comenzando future1 for runAfterEither...");
                 this.sleepSeconds(3);
-                System.out.println("Terminado future1 for runAfterEither!");
+                this.sink.log("Terminado future1 for runAfterEither!");
             } , this.executor);
 
         CompletableFuture<Void> futureB24 = CompletableFuture.runAsync(() ->
             {
-                System.out.println("Comenzando future2 for runAfterEither...");
+                this.sink.log("Comenzando future2 for runAfterEither...");
                 this.sleepSeconds(1);
-                System.out.println("Terminado future2 for runAfterEither!");
+                this.sink.log("Terminado future2 for runAfterEither!");
             } , this.executor);
 
-        futureA24.runAfterEitherAsync(futureB24, () -> System.out.println("En el runAfterEither, primero terminado."), this.executor);
+        this.track("futureA24.runAfterEither", futureA24.runAfterEitherAsync(futureB24, () -> this.sink.log("En el runAfterEither, primero terminado."), this.executor));
 
         // *** applyToEither: muy similar a ‘acceptEither’, pero este devuelve a su vez un futuro. Es como el ‘thenApply’ pero sobre el
         // futuro que termine antes:
         CompletableFuture<String> futureA15 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future1 for applyToEither...");
+                this.sink.log("Comenzando future1 for applyToEither...");
                 this.sleepSeconds(3);
-                System.out.println("Terminado future1 for applyToEither!");
+                this.sink.log("Terminado future1 for applyToEither!");
                 return "Segundo";
             } , this.executor);
 
         CompletableFuture<String> futureB15 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future2 for applyToEither...");
+                this.sink.log("Comenzando future2 for applyToEither...");
                 this.sleepSeconds(1);
-                System.out.println("Terminado future2 for applyToEither!");
+                this.sink.log("Terminado future2 for applyToEither!");
                 return "Primero";
             } , this.executor);
 
         CompletableFuture<String> applyToEitherFuture = futureA15.applyToEitherAsync(futureB15, s ->
             {
-                System.out.println("Comenzando applyToEither...");
+                this.sink.log("Comenzando applyToEither...");
                 this.sleepSeconds(1);
-                System.out.println("Terminado applyToEither!");
+                this.sink.log("Terminado applyToEither!");
                 return s.toUpperCase();
             } , this.executor);
 
-        applyToEitherFuture.whenCompleteAsync((s, e) -> System.out.println("Resultado applyToEither: " + s), this.executor);
+        this.logWhenComplete("applyToEitherFuture.whenComplete", applyToEitherFuture, "Resultado applyToEither: {}");
 
         // allOf y anyOf: Con estos dos métodos podemos hacer un ‘thenAcceptBoth’ o ‘acceptEither’ sobre un número ilimitado de futuros:
         // allOf
         CompletableFuture<String> futureA16 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future1 for allOf...");
+                this.sink.log("Comenzando future1 for allOf...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado future1 for allOf!");
+                this.sink.log("Terminado future1 for allOf!");
                 return "Terminado future1";
             } , this.executor);
 
         CompletableFuture<String> futureB16 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future2 for allOf...");
+                this.sink.log("Comenzando future2 for allOf...");
                 this.sleepSeconds(1);
-                System.out.println("Terminado future2 for allOf!");
+                this.sink.log("Terminado future2 for allOf!");
                 return "Terminado future2";
             } , this.executor);
 
         CompletableFuture<String> futureC16 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future3 for allOf...");
+                this.sink.log("Comenzando future3 for allOf...");
                 this.sleepSeconds(3);
-                System.out.println("Terminado future3 for allOf!");
+                this.sink.log("Terminado future3 for allOf!");
                 return "Terminado future3";
             } , this.executor);
 
         CompletableFuture<Void> all1 = CompletableFuture.allOf(futureA16, futureB16, futureC16);
 
-        all1.whenCompleteAsync((s, e) -> System.out.println("Resultado all: " + s), this.executor);
+        this.logWhenComplete("all1.whenComplete", all1, "Resultado all: {}");
 
         // anyOf
         CompletableFuture<String> future1 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future1 for allOf...");
+                this.sink.log("Comenzando future1 for allOf...");
                 this.sleepSeconds(2);
-                System.out.println("Terminado future1 for allOf!");
+                this.sink.log("Terminado future1 for allOf!");
                 return "Terminado future1";
             } , this.executor);
 
         CompletableFuture<String> future2 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future2 for allOf...");
+                this.sink.log("Comenzando future2 for allOf...");
                 this.sleepSeconds(1);
-                System.out.println("Terminado future2 for allOf!");
+                this.sink.log("Terminado future2 for allOf!");
                 return "Terminado future2";
             } , this.executor);
 
         CompletableFuture<String> future3 = CompletableFuture.supplyAsync(() ->
             {
-                System.out.println("Comenzando future3 for allOf...");
+                this.sink.log("Comenzando future3 for allOf...");
                 this.sleepSeconds(3);
-                System.out.println("Terminado future3 for allOf!");
+                this.sink.log("Terminado future3 for allOf!");
                 return "Terminado future3";
             } , this.executor);
 
         CompletableFuture<Object> all2 = CompletableFuture.anyOf(future1, future2, future3);
 
-        all2.whenCompleteAsync((s, e) -> System.out.println("Resultado any: " + s), this.executor);
+        this.logWhenComplete("all2.whenComplete", all2, "Resultado any: {}");
+
+    }
+
+    // --------------------------------------------------------------------------------
+
+    // FAN-OUT ESTRUCTURADO
+
+    // El mismo allOf/anyOf con FanOutScope: los resultados llegan tipados (List<String> en lugar de Void/Object), si un
+    // futuro falla los hermanos se cancelan en lugar de seguir corriendo, y con quorum alcanza con los primeros k.
+    // Las tareas duermen con Thread.sleep a propósito: fork recibe un Callable que ocupa un hilo, y el ejemplo muestra
+    // que al cancelar se interrumpe ese hilo.
+    public List<String> completableFeatureFanOut() {
+        List<String> all;
+        try (FanOutScope<String> scope = new FanOutScope<>(this.executor)) {
+            for (int i = 1; i <= 3; i++) {
+                int seconds = i;
+                scope.fork(() ->
+                    {
+                        this.sink.log("Comenzando future{} for scope...", seconds);
+                        Thread.sleep(seconds * 1000L);
+                        this.sink.log("Terminado future{} for scope!", seconds);
+                        return "Terminado future" + seconds;
+                    });
+            }
+            all = scope.joinAll().join();
+            this.sink.log("Resultado all scope: {}", all);
+        }
+
+        try (FanOutScope<String> scope = new FanOutScope<>(this.executor)) {
+            scope.fork(() ->
+                {
+                    throw new RuntimeException("Error en el futuro 1");
+                });
+            scope.fork(() ->
+                {
+                    Thread.sleep(3000);
+                    return "Nunca se usa";
+                });
+            scope.joinAll().whenComplete((s, e) -> this.sink.log("Resultado all scope con error: {}", e)).exceptionally(e -> null).join();
+        }
 
+        try (FanOutScope<String> scope = new FanOutScope<>(this.executor)) {
+            for (int i = 1; i <= 3; i++) {
+                int seconds = i;
+                scope.fork(() ->
+                    {
+                        Thread.sleep(seconds * 1000L);
+                        return "Terminado future" + seconds;
+                    });
+            }
+            this.sink.log("Resultado quorum 2 de 3: {}", scope.joinQuorum(2).join());
+        }
+        return all;
     }
 
     // --------------------------------------------------------------------------------
@@ -483,34 +713,67 @@ public class FeatureExample {
 
     public List<Integer> completableFeatureExample1() {
 
-        System.out.println("Run 1");
-        CompletableFuture<List<Integer>> cfNumbers1 = this.getList(1, 3);
+        // Un único deadline para todo el pedido: las dos cargas y las dos esperas comparten los mismos 20 segundos, y si se
+        // vencen las cargas pendientes se cancelan y la etapa que arma cada lista ya no llega a correr en el executor.
+        Deadline deadline = Deadline.after(SECONDS_TIMEOUT, TimeUnit.SECONDS);
 
-        System.out.println("Run 2");
-        CompletableFuture<List<Integer>> cfNumbers2 = this.getList(2, 6);
+        this.sink.log("Run 1");
+        CompletableFuture<List<Integer>> cfNumbers1 = this.getList(1, 3, deadline);
 
-        System.out.println("Wait...");
+        this.sink.log("Run 2");
+        CompletableFuture<List<Integer>> cfNumbers2 = this.getList(2, 6, deadline);
 
-        List<Integer> numbers1 = this.getList(cfNumbers1);
-        System.out.println("Complete 1");
+        this.sink.log("Wait...");
 
-        List<Integer> numbers2 = this.getList(cfNumbers2);
-        System.out.println("Complete 2");
+        List<Integer> numbers1 = this.getList(cfNumbers1, deadline);
+        this.sink.log("Complete 1");
+
+        List<Integer> numbers2 = this.getList(cfNumbers2, deadline);
+        this.sink.log("Complete 2");
 
         return numbers1;
     }
 
+    // Variante de completableFeatureExample1 que junta los resultados en el orden en que terminan: la carga 2 es más
+    // rápida y se procesa apenas termina, sin esperar a la 1 como pasa con un get por futuro en orden.
+    public List<Integer> completableFeatureCollected() {
+        CompletionCollector<List<Integer>> collector = new CompletionCollector<>(WaitStrategy.PARK);
+
+        this.sink.log("Run 1");
+        collector.submit(this.getList(1, 6));
+
+        this.sink.log("Run 2");
+        collector.submit(this.getList(2, 3));
+
+        this.sink.log("Wait...");
+        List<Integer> numbers = new ArrayList<>();
+        boolean complete = collector.awaitAll(completion ->
+            {
+                if (completion.isSuccess()) {
+                    this.sink.log("Complete {}", completion.getIndex() + 1);
+                    numbers.addAll(completion.getValue());
+                } else {
+                    this.sink.log("Error en la carga {}: {}", completion.getIndex() + 1, completion.getError());
+                }
+            } , 16, SECONDS_TIMEOUT, TimeUnit.SECONDS);
+        if (!complete) {
+            this.sink.log("Timeout, cargas pendientes: {}", collector.getPending());
+        }
+        return numbers;
+    }
+
     // --------------------------------------------------------------------------------
 
-    //
+    // La espera se hace con Delays en lugar de sleepSeconds: ningún hilo del pool queda bloqueado mientras tanto, y la
+    // etapa que arma la lista corre en el executor recién cuando se cumple el tiempo.
+    // Con Pipeline la etapa que arma la lista y el handle se fusionan en una sola tarea del executor.
     private CompletableFuture<List<Integer>> getList(Integer num, int sleep) {
-        return CompletableFuture.supplyAsync(() ->
+        return Pipeline.from(Delays.delay(sleep, TimeUnit.SECONDS)).map(v ->
             {
                 List<Integer> numbers = Arrays.asList(num, num + 1, num + 2);
-                this.sleepSeconds(sleep);
-                System.out.println("Antes del Retornar de getList");
+                this.sink.log("Antes del Retornar de getList");
                 return numbers;
-            } , this.executor).handle((ok, ex) ->
+            }).handle((ok, ex) ->
                 {
                     // Luego de ejecutarse la operación anonima, se ejecuta lo definido en handle
                     // En ok queda el resultado del return
@@ -518,31 +781,139 @@ public class FeatureExample {
                         throw new ProviderException("Provider Name", ex);
                     }
                     return ok;
-                });
+                }).runAsync(this.metrics.instrument("getList", this.executor));
+    }
+
+    // --------------------------------------------------------------------------------
+
+    // getList memoizado: solo la primera llamada por número paga la demora; las siguientes (incluso concurrentes,
+    // mientras la primera sigue en vuelo) reciben el mismo futuro.
+    public CompletableFuture<List<Integer>> getListCached(Integer num) {
+        return this.listCache.get(num);
+    }
+
+    // getList con los pedidos concurrentes agrupados: muchos llamadores con números distintos pagan una sola demora del
+    // proveedor en lugar de una cada uno.
+    public CompletableFuture<List<Integer>> getListCoalesced(Integer num) {
+        return this.listBatcher.load(num);
+    }
+
+    // Carga masiva de getListCoalesced: una sola demora para todos los números del lote
+    private CompletableFuture<Map<Integer, List<Integer>>> getLists(Set<Integer> nums) {
+        this.sink.log("Carga agrupada de {} números", nums.size());
+        return Delays.supplyAfter(CACHED_LIST_SLEEP_SECONDS, TimeUnit.SECONDS, () ->
+            {
+                Map<Integer, List<Integer>> lists = new HashMap<>();
+                for (Integer num : nums) {
+                    lists.put(num, Arrays.asList(num, num + 1, num + 2));
+                }
+                return lists;
+            } , this.executor);
+    }
+
+    // --------------------------------------------------------------------------------
+
+    // getList protegido: en lugar de solo envolver el error en ProviderException, reintenta con backoff, corta las
+    // llamadas mientras el proveedor está caído y, si todo falla, devuelve una lista vacía como valor por defecto.
+    public CompletableFuture<List<Integer>> getListResilient(Integer num, int sleep) {
+        return this.providerGuard.call(() -> this.getList(num, sleep), e ->
+            {
+                this.sink.log("Fallback de getList: {}", e.getMessage());
+                return Collections.<Integer> emptyList();
+            });
     }
 
     // --------------------------------------------------------------------------------
 
-    // Con el metodo get del completableFeature obtenemos el objeto resultado de la operación que se ejecuto en otro hilo
-    private List<Integer> getList(CompletableFuture<List<Integer>> list) {
+    // Igual que getList(num, sleep) pero ligado al deadline del pedido: si se vence antes de terminar, la carga se cancela
+    private CompletableFuture<List<Integer>> getList(Integer num, int sleep, Deadline deadline) {
+        return deadline.bind(this.getList(num, sleep));
+    }
+
+    // --------------------------------------------------------------------------------
+
+    // Con el metodo get del completableFeature obtenemos el objeto resultado de la operación que se ejecuto en otro hilo.
+    // Se espera solo el tiempo que le queda al deadline, no un timeout fijo por cada get.
+    private List<Integer> getList(CompletableFuture<List<Integer>> list, Deadline deadline) {
         try {
-            long SECONDS_TIMEOUT = 20;
-            return list.get(SECONDS_TIMEOUT, TimeUnit.SECONDS);
+            return deadline.get(list);
         } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            System.out.println("Exception Timeout");
+            this.sink.log("Exception Timeout");
             throw new ProviderException("Provider Name", e);
         }
     }
 
+    // --------------------------------------------------------------------------------
+
+    // HEDGING
+
+    // applyToEither/anyOf dejan corriendo al futuro perdedor (y anyOf deja ganar a un futuro que falla). Con Hedger el
+    // respaldo solo se lanza si el primario no respondió tras el p95 de latencia, gana el primer intento exitoso y el
+    // perdedor se interrumpe, liberando su hilo.
+    public String completableFeatureHedged() {
+        this.sink.log("Demora del respaldo: {} ms", TimeUnit.NANOSECONDS.toMillis(this.hedger.getHedgeDelayNanos()));
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> hedged = this.hedger.call(() ->
+            {
+                int attempt = attempts.incrementAndGet();
+                this.sink.log("Comenzando intento {}...", attempt);
+                // El primer intento es lento, el respaldo responde rápido. Se bloquea a propósito: Hedger interrumpe al
+                // perdedor, y eso solo libera un hilo si el intento lo está ocupando.
+                Thread.sleep(attempt == 1 ? 3000 : 500);
+                this.sink.log("Terminado intento {}!", attempt);
+                return "Terminado intento " + attempt;
+            });
+        String result = hedged.join();
+        this.sink.log("Resultado hedged: {}", result);
+        return result;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    // Versión por lotes de completableFeatureExample1: en lugar de un futuro y un get bloqueante por clave, un único futuro
+    // con todos los resultados en un int[] (en el orden de las claves), con como máximo maxConcurrency cargas en vuelo.
+    public int[] completableFeatureBatch(int[] nums, int sleep, int maxConcurrency) {
+        CompletableFuture<int[]> all = this.getListBatch(nums, sleep, maxConcurrency);
+        this.sink.log("Wait batch...");
+        int[] numbers = all.join();
+        this.sink.log("Complete batch: {}", numbers.length);
+        return numbers;
+    }
+
+    public CompletableFuture<int[]> getListBatch(int[] nums, int sleep, int maxConcurrency) {
+        return BatchFanOut.loadAll(nums, maxConcurrency, num -> this.getInts(num, sleep),
+                (index, num, values) -> this.sink.log("Resultado parcial de getList: {}", num));
+    }
+
+    // Las cargas pasan por el limitador adaptativo: si la latencia del proveedor empeora se reduce la cantidad en vuelo
+    // y el resto espera brevemente en cola (o falla rápido) en lugar de acumularse en el executor.
+    private CompletableFuture<int[]> getInts(int num, int sleep) {
+        return this.limiter.submit(() -> Delays.supplyAfter(sleep, TimeUnit.SECONDS, () -> new int[] { num, num + 1, num + 2 }, this.executor));
+    }
+
+    // Versión en streaming de getListBatch: cada resultado se emite apenas el subscriber lo pide, sin juntar todo en
+    // memoria; las cargas en vuelo quedan acotadas por la demanda del subscriber y por maxConcurrency.
+    public Publisher<int[]> publishLists(int[] nums, int sleep, int maxConcurrency, boolean ordered) {
+        List<Supplier<CompletableFuture<int[]>>> sources = new ArrayList<>(nums.length);
+        for (int num : nums) {
+            sources.add(() -> this.getInts(num, sleep));
+        }
+        return new FuturePublisher<>(sources, maxConcurrency, ordered);
+    }
+
     // --------------------------------------------------------------------------------
     // --------------------------------------------------------------------------------
     // --------------------------------------------------------------------------------
 
+    // Simula trabajo bloqueante dentro de la etapa. Los ejemplos de runAsync/supplyAsync/then*Async la usan a propósito:
+    // muestran en qué hilo corre cada etapa mientras trabaja. Las esperas que solo simulan la latencia de un proveedor
+    // (getList, getLists, getInts) usan Delays y no ocupan hilos.
     private void sleepSeconds(int seconds) {
         try {
-            Thread.sleep(seconds * 1000);
-        } catch (Exception e) {
-            e.printStackTrace();
+            Thread.sleep(seconds * 1000L);
+        } catch (InterruptedException e) {
+            // Una etapa cancelada con interrupción termina antes; se conserva la marca para quien corre la tarea
+            Thread.currentThread().interrupt();
         }
     }
 	
@@ -0,0 +1,61 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Count-min sketch para estimar con qué frecuencia se pidió cada clave (como el de TinyLFU). Usa 4 filas de contadores
+// con hashes distintos y la estimación es el mínimo. Cada 'sampleSize' incrementos todos los contadores se dividen por
+// 2, así la frecuencia refleja la popularidad reciente.
+class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = { 0x97cb3127, 0xb1a5f3e5, 0x4e8c3d29, 0x7f4a7c15 };
+
+    private final AtomicIntegerArray table;
+    private final int mask;
+    private final long sampleSize;
+    private final AtomicLong additions = new AtomicLong();
+
+    FrequencySketch(int expectedSize) {
+        int width = Integer.highestOneBit(Math.max(16, expectedSize * 4 - 1)) << 1;
+        this.table = new AtomicIntegerArray(width * DEPTH);
+        this.mask = width - 1;
+        this.sampleSize = 10L * Math.max(1, expectedSize);
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        for (int row = 0; row < DEPTH; row++) {
+            this.table.incrementAndGet(this.indexOf(hash, row));
+        }
+        if (this.additions.incrementAndGet() % this.sampleSize == 0) {
+            this.reset();
+        }
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, this.table.get(this.indexOf(hash, row)));
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        for (int i = 0; i < this.table.length(); i++) {
+            this.table.set(i, this.table.get(i) >>> 1);
+        }
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+        return row * (this.mask + 1) + ((h ^ (h >>> 16)) & this.mask);
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x85ebca6b;
+        return h ^ (h >>> 13);
+    }
+
+}
@@ -0,0 +1,224 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+// Publisher de reactive-streams sobre una fuente de productores de CompletableFuture (por ejemplo getList por número).
+//
+// Solo se lanzan tantos productores como demanda pidió el subscriber (request(n)), y nunca más de maxConcurrency a la
+// vez: con demanda 1 hay un solo productor en vuelo y ningún resultado acumulado. Así un conjunto grande de resultados
+// se procesa de a poco con memoria acotada, en lugar de materializar la lista completa.
+//
+// Los resultados se emiten en orden de completion (ordered = false) o en el orden de la fuente (ordered = true). Si un
+// productor falla, se cancelan los que estén en vuelo y se llama a onError. Cada subscribe recorre la fuente de nuevo.
+//
+// El proyecto compila para Java 8, por eso se usa org.reactivestreams; en Java 9+ FlowAdapters.toFlowPublisher lo
+// convierte en un java.util.concurrent.Flow.Publisher.
+public class FuturePublisher<T> implements Publisher<T> {
+
+    private final Iterable<? extends Supplier<CompletableFuture<T>>> sources;
+    private final int maxConcurrency;
+    private final boolean ordered;
+
+    public FuturePublisher(Iterable<? extends Supplier<CompletableFuture<T>>> sources, int maxConcurrency, boolean ordered) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency debe ser >= 1");
+        }
+        this.sources = sources;
+        this.maxConcurrency = maxConcurrency;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        FutureSubscription subscription = new FutureSubscription(subscriber, this.sources.iterator());
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private final class FutureSubscription implements Subscription {
+
+        private final Subscriber<? super T> subscriber;
+        private final Iterator<? extends Supplier<CompletableFuture<T>>> iterator;
+
+        // Demanda total pedida (acumulada, con tope Long.MAX_VALUE)
+        private final AtomicLong requested = new AtomicLong();
+        // Serializa el bucle de emisión: solo un hilo a la vez llama a onNext y recorre la fuente
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Set<CompletableFuture<T>> running = ConcurrentHashMap.newKeySet();
+
+        // Resultados listos para emitir
+        private final Queue<T> completed = new ConcurrentLinkedQueue<>();
+        private final Map<Long, T> completedByIndex = new ConcurrentHashMap<>();
+
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        // Solo los modifica el hilo que está dentro del bucle de emisión
+        private long launched;
+        private long emitted;
+        private boolean exhausted;
+        private boolean terminated;
+
+        FutureSubscription(Subscriber<? super T> subscriber, Iterator<? extends Supplier<CompletableFuture<T>>> iterator) {
+            this.subscriber = subscriber;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.fail(new IllegalArgumentException("request debe ser > 0 (regla 3.9 de reactive-streams): " + n));
+            } else {
+                this.requested.accumulateAndGet(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            }
+            this.drain();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            this.cancelRunning();
+        }
+
+        void drain() {
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                this.drainLoop();
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainLoop() {
+            if (this.terminated || this.cancelled) {
+                return;
+            }
+            if (this.error != null) {
+                this.signalError();
+                return;
+            }
+
+            long demand = this.requested.get();
+            while (this.emitted < demand) {
+                T next = this.pollNext();
+                if (next == null) {
+                    break;
+                }
+                this.subscriber.onNext(next);
+                this.emitted++;
+                if (this.cancelled) {
+                    return;
+                }
+            }
+
+            // Nunca se lanzan más productores que la demanda total ni más de maxConcurrency a la vez
+            while (!this.exhausted && this.error == null && this.launched < demand && this.inFlight.get() < FuturePublisher.this.maxConcurrency) {
+                if (!this.iterator.hasNext()) {
+                    this.exhausted = true;
+                    break;
+                }
+                this.launch(this.iterator.next(), this.launched++);
+            }
+            // Un productor que falla al lanzarse solo registra el error: si no hay otro en vuelo, nadie más volvería a
+            // llamar a drain() para entregarlo
+            if (this.error != null) {
+                this.signalError();
+                return;
+            }
+
+            if (!this.exhausted && this.inFlight.get() == 0 && this.isBufferEmpty() && !this.iterator.hasNext()) {
+                this.exhausted = true;
+            }
+            if (this.exhausted && this.inFlight.get() == 0 && this.isBufferEmpty() && this.error == null) {
+                this.terminate();
+                this.subscriber.onComplete();
+            }
+        }
+
+        private void launch(Supplier<CompletableFuture<T>> source, long index) {
+            CompletableFuture<T> future;
+            try {
+                future = source.get();
+                if (future == null) {
+                    throw new NullPointerException("Un productor devolvió un futuro null");
+                }
+            } catch (Throwable e) {
+                this.fail(e);
+                return;
+            }
+            this.inFlight.incrementAndGet();
+            this.running.add(future);
+            // Si el futuro ya está completo, el callback corre acá mismo y su drain() solo marca trabajo pendiente
+            future.whenComplete((value, ex) ->
+                {
+                    this.running.remove(future);
+                    if (ex != null) {
+                        this.fail(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                    } else if (value == null) {
+                        this.fail(new NullPointerException("Un productor devolvió null (regla 2.13 de reactive-streams)"));
+                    } else if (FuturePublisher.this.ordered) {
+                        this.completedByIndex.put(index, value);
+                    } else {
+                        this.completed.add(value);
+                    }
+                    this.inFlight.decrementAndGet();
+                    this.drain();
+                });
+        }
+
+        private T pollNext() {
+            return FuturePublisher.this.ordered ? this.completedByIndex.remove(this.emitted) : this.completed.poll();
+        }
+
+        private boolean isBufferEmpty() {
+            return FuturePublisher.this.ordered ? this.completedByIndex.isEmpty() : this.completed.isEmpty();
+        }
+
+        private void fail(Throwable e) {
+            if (this.error == null) {
+                this.error = e;
+            }
+        }
+
+        private void signalError() {
+            this.terminate();
+            this.cancelRunning();
+            this.subscriber.onError(this.error);
+        }
+
+        private void terminate() {
+            this.terminated = true;
+            this.completed.clear();
+            this.completedByIndex.clear();
+        }
+
+        private void cancelRunning() {
+            for (CompletableFuture<T> future : this.running) {
+                future.cancel(true);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Registro de los futuros en vuelo, en especial los "fire-and-forget" (callbacks whenCompleteAsync cuyo resultado nadie
+// espera). Cada futuro se quita solo al completarse, y drain permite esperar a los pendientes con un plazo y saber
+// cuáles quedaron sin terminar.
+public class FutureTracker {
+
+    private final Map<CompletableFuture<?>, String> pending = new ConcurrentHashMap<>();
+
+    public <T> CompletableFuture<T> track(String name, CompletableFuture<T> future) {
+        this.pending.put(future, name);
+        future.whenComplete((value, ex) -> this.pending.remove(future));
+        return future;
+    }
+
+    public int pendingCount() {
+        return this.pending.size();
+    }
+
+    // Espera a que terminen los futuros pendientes hasta el plazo indicado; los que siguen pendientes al vencer se
+    // cancelan y se informan como abandonados. Los futuros que se registran durante el drenado también se esperan.
+    public DrainReport drain(long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+        long deadline = start + unit.toNanos(timeout);
+        int completed = 0;
+        boolean expired = false;
+        while (!expired && !this.pending.isEmpty()) {
+            List<CompletableFuture<?>> snapshot = new ArrayList<>(this.pending.keySet());
+            long remaining = deadline - System.nanoTime();
+            try {
+                CompletableFuture.allOf(snapshot.toArray(new CompletableFuture<?>[0])).get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                // Los futuros que fallan también cuentan como terminados
+            } catch (TimeoutException e) {
+                expired = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                expired = true;
+            }
+            for (CompletableFuture<?> future : snapshot) {
+                if (future.isDone()) {
+                    this.pending.remove(future);
+                    completed++;
+                }
+            }
+        }
+
+        List<String> abandoned = new ArrayList<>();
+        for (Map.Entry<CompletableFuture<?>, String> entry : this.pending.entrySet()) {
+            if (entry.getKey().cancel(true)) {
+                abandoned.add(entry.getValue());
+            }
+        }
+        this.pending.clear();
+        return new DrainReport(completed, abandoned, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+}
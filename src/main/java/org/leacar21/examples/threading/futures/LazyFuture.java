@@ -0,0 +1,324 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Futuro "frío": a diferencia de supplyAsync, crearlo no ejecuta nada. El trabajo se lanza recién la primera vez que
+// alguien lo necesita: get/join, cualquier continuación (thenApply, whenComplete, combinarlo con otro futuro, etc.),
+// toCompletableFuture o materialize. Una rama condicional que nunca se pide no cuesta nada.
+//
+// Limitación: pasarlo como argumento a CompletableFuture (acceptEither, applyToEither, runAfterEither, thenCombine,
+// anyOf, allOf...) lo lanza en el acto, porque esos métodos llaman a toCompletableFuture sobre su argumento. Como
+// perdedor de una carrera no ahorra nada. Lo que sí ahorra es la alternativa que solo se pide si hace falta:
+//   primary.handle((ok, ex) -> ex == null ? CompletableFuture.completedFuture(ok) : fallback.toCompletableFuture())
+//          .thenCompose(Function.identity())
+//
+// materialize y toCompletableFuture devuelven una copia dependiente: completarla u obtrude* sobre ella no cambia el
+// resultado que ven los demás.
+//
+// isDone, isCancelled y cancel no lo lanzan; cancelarlo antes de lanzarlo evita que el trabajo llegue a correr, y
+// cancelarlo después cancela también el futuro del productor.
+public final class LazyFuture<T> implements CompletionStage<T>, Future<T> {
+
+    private final Supplier<? extends CompletableFuture<T>> producer;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private LazyFuture(Supplier<? extends CompletableFuture<T>> producer) {
+        this.producer = producer;
+    }
+
+    // Como CompletableFuture.supplyAsync, pero el supplier se envía al executor recién cuando se necesita el resultado
+    public static <T> LazyFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        return new LazyFuture<>(() -> CompletableFuture.supplyAsync(supplier, executor));
+    }
+
+    // Como CompletableFuture.runAsync, pero diferido
+    public static LazyFuture<Void> runAsync(Runnable action, Executor executor) {
+        return new LazyFuture<>(() -> CompletableFuture.runAsync(action, executor));
+    }
+
+    // Difiere una operación que ya devuelve un futuro (por ejemplo getList) hasta que se la necesite
+    public static <T> LazyFuture<T> defer(Supplier<? extends CompletableFuture<T>> producer) {
+        return new LazyFuture<>(producer);
+    }
+
+    // Lanza el trabajo si todavía no se lanzó y devuelve una copia del futuro del resultado
+    public CompletableFuture<T> materialize() {
+        return this.start().thenApply(Function.identity());
+    }
+
+    // Lanza el trabajo si todavía no se lanzó y devuelve el futuro interno del resultado, que nunca sale de la clase
+    private CompletableFuture<T> start() {
+        if (this.started.compareAndSet(false, true) && !this.result.isDone()) {
+            CompletableFuture<T> source;
+            try {
+                source = this.producer.get();
+            } catch (Throwable e) {
+                this.result.completeExceptionally(e);
+                return this.result;
+            }
+            source.whenComplete((value, error) ->
+                {
+                    if (error != null) {
+                        this.result.completeExceptionally(error);
+                    } else {
+                        this.result.complete(value);
+                    }
+                });
+            this.result.whenComplete((value, error) ->
+                {
+                    if (this.result.isCancelled()) {
+                        source.cancel(true);
+                    }
+                });
+        }
+        return this.result;
+    }
+
+    public boolean isStarted() {
+        return this.started.get();
+    }
+
+    // --------------------------------------------------------------------------------
+    // Future: get y join lanzan el trabajo; isDone, isCancelled y cancel no
+
+    public T join() {
+        return this.start().join();
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        return this.start().get();
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        return this.start().get(timeout, unit);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return this.result.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return this.result.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return this.result.isDone();
+    }
+
+    // --------------------------------------------------------------------------------
+    // CompletionStage: cada continuación lanza el trabajo y delega en el CompletableFuture del resultado
+
+    @Override
+    public CompletableFuture<T> toCompletableFuture() {
+        return this.materialize();
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenApply(Function<? super T, ? extends U> fn) {
+        return this.start().thenApply(fn);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn) {
+        return this.start().thenApplyAsync(fn);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn, Executor executor) {
+        return this.start().thenApplyAsync(fn, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> thenAccept(Consumer<? super T> action) {
+        return this.start().thenAccept(action);
+    }
+
+    @Override
+    public CompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action) {
+        return this.start().thenAcceptAsync(action);
+    }
+
+    @Override
+    public CompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action, Executor executor) {
+        return this.start().thenAcceptAsync(action, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> thenRun(Runnable action) {
+        return this.start().thenRun(action);
+    }
+
+    @Override
+    public CompletableFuture<Void> thenRunAsync(Runnable action) {
+        return this.start().thenRunAsync(action);
+    }
+
+    @Override
+    public CompletableFuture<Void> thenRunAsync(Runnable action, Executor executor) {
+        return this.start().thenRunAsync(action, executor);
+    }
+
+    @Override
+    public <U, V> CompletableFuture<V> thenCombine(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn) {
+        return this.start().thenCombine(other, fn);
+    }
+
+    @Override
+    public <U, V> CompletableFuture<V> thenCombineAsync(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn) {
+        return this.start().thenCombineAsync(other, fn);
+    }
+
+    @Override
+    public <U, V> CompletableFuture<V> thenCombineAsync(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn, Executor executor) {
+        return this.start().thenCombineAsync(other, fn, executor);
+    }
+
+    @Override
+    public <U> CompletableFuture<Void> thenAcceptBoth(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action) {
+        return this.start().thenAcceptBoth(other, action);
+    }
+
+    @Override
+    public <U> CompletableFuture<Void> thenAcceptBothAsync(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action) {
+        return this.start().thenAcceptBothAsync(other, action);
+    }
+
+    @Override
+    public <U> CompletableFuture<Void> thenAcceptBothAsync(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action, Executor executor) {
+        return this.start().thenAcceptBothAsync(other, action, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterBoth(CompletionStage<?> other, Runnable action) {
+        return this.start().runAfterBoth(other, action);
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action) {
+        return this.start().runAfterBothAsync(other, action);
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+        return this.start().runAfterBothAsync(other, action, executor);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> applyToEither(CompletionStage<? extends T> other, Function<? super T, U> fn) {
+        return this.start().applyToEither(other, fn);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> applyToEitherAsync(CompletionStage<? extends T> other, Function<? super T, U> fn) {
+        return this.start().applyToEitherAsync(other, fn);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> applyToEitherAsync(CompletionStage<? extends T> other, Function<? super T, U> fn, Executor executor) {
+        return this.start().applyToEitherAsync(other, fn, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> acceptEither(CompletionStage<? extends T> other, Consumer<? super T> action) {
+        return this.start().acceptEither(other, action);
+    }
+
+    @Override
+    public CompletableFuture<Void> acceptEitherAsync(CompletionStage<? extends T> other, Consumer<? super T> action) {
+        return this.start().acceptEitherAsync(other, action);
+    }
+
+    @Override
+    public CompletableFuture<Void> acceptEitherAsync(CompletionStage<? extends T> other, Consumer<? super T> action, Executor executor) {
+        return this.start().acceptEitherAsync(other, action, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterEither(CompletionStage<?> other, Runnable action) {
+        return this.start().runAfterEither(other, action);
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action) {
+        return this.start().runAfterEitherAsync(other, action);
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+        return this.start().runAfterEitherAsync(other, action, executor);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenCompose(Function<? super T, ? extends CompletionStage<U>> fn) {
+        return this.start().thenCompose(fn);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn) {
+        return this.start().thenComposeAsync(fn);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn, Executor executor) {
+        return this.start().thenComposeAsync(fn, executor);
+    }
+
+    @Override
+    public CompletableFuture<T> whenComplete(BiConsumer<? super T, ? super Throwable> action) {
+        return this.start().whenComplete(action);
+    }
+
+    @Override
+    public CompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action) {
+        return this.start().whenCompleteAsync(action);
+    }
+
+    @Override
+    public CompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action, Executor executor) {
+        return this.start().whenCompleteAsync(action, executor);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> handle(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return this.start().handle(fn);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return this.start().handleAsync(fn);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn, Executor executor) {
+        return this.start().handleAsync(fn, executor);
+    }
+
+    @Override
+    public CompletableFuture<T> exceptionally(Function<Throwable, ? extends T> fn) {
+        return this.start().exceptionally(fn);
+    }
+
+    @Override
+    public String toString() {
+        return "LazyFuture[" + (this.started.get() ? this.result.toString() : "sin lanzar") + "]";
+    }
+
+}
@@ -0,0 +1,228 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.leacar21.examples.threading.executors.StageKind;
+
+// Builder fluido que fusiona una cadena de etapas sincrónicas en una sola tarea.
+//
+// Con CompletableFuture cada thenApply/handle/whenComplete crea un nodo de completion y, en su variante Async, vuelve a
+// pasar por la cola del executor. Un Pipeline acumula las etapas y las ejecuta todas seguidas en un único bucle: se
+// despacha una vez por pipeline (runAsync) en lugar de una vez por etapa, y solo se crea el CompletableFuture final.
+//
+// La semántica de errores es la de CompletableFuture: map se saltea si hay error; handle recibe valor o error y su
+// resultado reemplaza a ambos; exceptionally solo corre si hay error; whenComplete observa sin cambiar el resultado
+// (salvo que falle cuando no había error). Las excepciones de las etapas llegan envueltas en CompletionException.
+//
+// El builder es mutable y de un solo uso: cada método agrega una etapa y devuelve el mismo pipeline.
+//
+// run(executor, policy) elige dónde corre la continuación: inline en el hilo que completa el origen (sin salto de hilo
+// para callbacks triviales), siempre en el executor, o adaptativo según el StageKind declarado con kind().
+public final class Pipeline<T> {
+
+    // Continuaciones que puede acumular el Trampoline de un hilo antes de que ADAPTIVE empiece a mandarlas al executor
+    private static final int MAX_INLINE_BACKLOG = 16;
+
+    // Estado que recorre las etapas: un valor o un error
+    private static final class State {
+        Object value;
+        Throwable error;
+    }
+
+    private interface Step {
+        void apply(State state) throws Throwable;
+    }
+
+    private final CompletableFuture<?> source;
+    private final List<Step> steps = new ArrayList<>();
+    private StageKind kind = StageKind.CPU;
+
+    private Pipeline(CompletableFuture<?> source) {
+        this.source = source;
+    }
+
+    // Pipeline que arranca ejecutando el supplier (como supplyAsync)
+    public static <T> Pipeline<T> supply(Supplier<T> supplier) {
+        Pipeline<T> pipeline = new Pipeline<>(null);
+        pipeline.steps.add(state -> state.value = supplier.get());
+        return pipeline;
+    }
+
+    // Pipeline que continúa cuando se complete el futuro indicado. Cancelar el resultado cancela también el origen.
+    public static <T> Pipeline<T> from(CompletableFuture<T> source) {
+        return new Pipeline<>(source);
+    }
+
+    // thenApply
+    @SuppressWarnings("unchecked")
+    public <R> Pipeline<R> map(Function<? super T, ? extends R> function) {
+        this.steps.add(state ->
+            {
+                if (state.error == null) {
+                    state.value = function.apply((T) state.value);
+                }
+            });
+        return (Pipeline<R>) this;
+    }
+
+    // handle
+    @SuppressWarnings("unchecked")
+    public <R> Pipeline<R> handle(BiFunction<? super T, Throwable, ? extends R> function) {
+        this.steps.add(state ->
+            {
+                Object value = function.apply(state.error == null ? (T) state.value : null, state.error);
+                state.value = value;
+                state.error = null;
+            });
+        return (Pipeline<R>) this;
+    }
+
+    // exceptionally
+    public Pipeline<T> exceptionally(Function<Throwable, ? extends T> function) {
+        this.steps.add(state ->
+            {
+                if (state.error != null) {
+                    state.value = function.apply(state.error);
+                    state.error = null;
+                }
+            });
+        return this;
+    }
+
+    // whenComplete
+    @SuppressWarnings("unchecked")
+    public Pipeline<T> whenComplete(BiConsumer<? super T, ? super Throwable> action) {
+        this.steps.add(state ->
+            {
+                try {
+                    action.accept(state.error == null ? (T) state.value : null, state.error);
+                } catch (Throwable e) {
+                    // Si ya había un error se conserva el original
+                    if (state.error == null) {
+                        throw e;
+                    }
+                }
+            });
+        return this;
+    }
+
+    // Tipo de trabajo de las etapas, para ContinuationPolicy.ADAPTIVE. Por defecto CPU (transformaciones cortas); con
+    // BLOCKING la continuación siempre va al executor.
+    public Pipeline<T> kind(StageKind kind) {
+        this.kind = kind;
+        return this;
+    }
+
+    // Cantidad de etapas fusionadas
+    public int size() {
+        return this.steps.size();
+    }
+
+    // Ejecuta todas las etapas en una única tarea del executor (luego de completarse el origen, si lo hay)
+    public CompletableFuture<T> runAsync(Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (this.source == null) {
+            this.dispatch(executor, result, null, null);
+        } else {
+            this.linkCancellation(result);
+            this.source.whenComplete((value, error) -> this.dispatch(executor, result, value, error));
+        }
+        return result;
+    }
+
+    // Ejecuta todas las etapas sin cambiar de hilo: en el hilo actual, o en el que complete el origen
+    public CompletableFuture<T> run() {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (this.source == null) {
+            this.execute(result, null, null);
+        } else {
+            this.linkCancellation(result);
+            this.source.whenComplete((value, error) -> this.execute(result, value, error));
+        }
+        return result;
+    }
+
+    // Ejecuta todas las etapas según la política: en el hilo que completa el origen, en el executor o adaptativo
+    public CompletableFuture<T> run(Executor executor, ContinuationPolicy policy) {
+        if (policy == ContinuationPolicy.ASYNC) {
+            return this.runAsync(executor);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (this.source == null) {
+            this.continueWith(policy, executor, result, null, null);
+        } else {
+            this.linkCancellation(result);
+            this.source.whenComplete((value, error) -> this.continueWith(policy, executor, result, value, error));
+        }
+        return result;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private void continueWith(ContinuationPolicy policy, Executor executor, CompletableFuture<T> result, Object value, Throwable error) {
+        boolean inline = policy == ContinuationPolicy.INLINE
+                || (this.kind == StageKind.CPU && Trampoline.pending() < MAX_INLINE_BACKLOG);
+        if (inline) {
+            Trampoline.get().execute(() -> this.execute(result, value, error));
+        } else {
+            this.dispatch(executor, result, value, error);
+        }
+    }
+
+    private void linkCancellation(CompletableFuture<T> result) {
+        result.whenComplete((value, error) ->
+            {
+                if (result.isCancelled()) {
+                    this.source.cancel(false);
+                }
+            });
+    }
+
+    private void dispatch(Executor executor, CompletableFuture<T> result, Object value, Throwable error) {
+        try {
+            executor.execute(() -> this.execute(result, value, error));
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void execute(CompletableFuture<T> result, Object value, Throwable error) {
+        if (result.isDone()) {
+            return;
+        }
+        State state = new State();
+        state.value = value;
+        state.error = error;
+        for (Step step : this.steps) {
+            try {
+                step.apply(state);
+            } catch (Throwable e) {
+                state.error = wrap(e);
+                state.value = null;
+            }
+            if (state.error != null) {
+                // Como CompletableFuture, el error que pasa de una etapa a la siguiente va envuelto
+                state.error = wrap(state.error);
+            }
+        }
+        if (state.error != null) {
+            result.completeExceptionally(state.error);
+        } else {
+            result.complete((T) state.value);
+        }
+    }
+
+    private static Throwable wrap(Throwable error) {
+        return error instanceof CompletionException ? error : new CompletionException(error);
+    }
+
+}
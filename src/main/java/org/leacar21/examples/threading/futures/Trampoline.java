@@ -0,0 +1,79 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+// Executor que corre las tareas en el hilo actual sin anidar la pila.
+//
+// Si una tarea, al ejecutarse, completa un futuro cuya continuación vuelve a pasar por el Trampoline, esa continuación
+// se encola y corre cuando termina la tarea actual, en lugar de ejecutarse recursivamente dentro de ella. Así una cadena
+// larga de continuaciones inline (por ejemplo miles de Pipeline encadenados con from) usa una profundidad de pila
+// constante en vez de una por eslabón.
+public final class Trampoline implements Executor {
+
+    private static final Trampoline INSTANCE = new Trampoline();
+
+    private static final class Frame {
+        final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        boolean draining;
+    }
+
+    private static final ThreadLocal<Frame> FRAME = ThreadLocal.withInitial(Frame::new);
+
+    private Trampoline() {
+    }
+
+    public static Trampoline get() {
+        return INSTANCE;
+    }
+
+    // Continuaciones encoladas en el hilo actual que todavía no corrieron
+    public static int pending() {
+        return FRAME.get().queue.size();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Frame frame = FRAME.get();
+        if (frame.draining) {
+            frame.queue.add(task);
+            return;
+        }
+        frame.draining = true;
+        Throwable failure = null;
+        try {
+            Runnable next = task;
+            while (next != null) {
+                try {
+                    next.run();
+                } catch (Throwable t) {
+                    // Una tarea que falla, aunque sea con un Error, no impide que corran las encoladas detrás de ella.
+                    // Se relanza el primer fallo al vaciar la cola; los siguientes quedan como suprimidos.
+                    if (failure == null) {
+                        failure = t;
+                    } else {
+                        failure.addSuppressed(t);
+                    }
+                }
+                next = frame.queue.poll();
+            }
+        } finally {
+            frame.draining = false;
+        }
+        if (failure != null) {
+            rethrow(failure);
+        }
+    }
+
+    private static void rethrow(Throwable failure) {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        // Una excepción chequeada solo puede llegar aquí lanzada "a escondidas" por la tarea
+        throw new IllegalStateException(failure);
+    }
+
+}
@@ -0,0 +1,39 @@
+package org.leacar21.examples.threading.futures;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Cómo espera el consumidor de un CompletionCollector cuando no hay resultados listos.
+//
+// - BUSY_SPIN: la menor latencia, pero ocupa un core entero mientras espera. Solo con cores de sobra.
+// - YIELD: cede el core entre intentos; latencia baja sin monopolizar la CPU si hay otros hilos listos.
+// - PARK: el consumidor duerme y los productores lo despiertan; casi sin CPU, a costa de un unpark por resultado.
+public enum WaitStrategy {
+
+    BUSY_SPIN {
+        @Override
+        void idle(long remainingNanos) {
+            // Vuelve a chequear enseguida (Thread.onSpinWait es Java 9+)
+        }
+    },
+
+    YIELD {
+        @Override
+        void idle(long remainingNanos) {
+            Thread.yield();
+        }
+    },
+
+    PARK {
+        @Override
+        void idle(long remainingNanos) {
+            // El tope acota la espera si un unpark se perdió entre el chequeo de la cola y el park
+            LockSupport.parkNanos(Math.min(remainingNanos, MAX_PARK_NANOS));
+        }
+    };
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    abstract void idle(long remainingNanos);
+
+}
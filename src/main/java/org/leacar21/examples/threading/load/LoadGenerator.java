@@ -0,0 +1,130 @@
+package org.leacar21.examples.threading.load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import org.leacar21.examples.threading.executors.ExecutionMode;
+import org.leacar21.examples.threading.metrics.Histogram;
+
+// Generador de carga open-loop para los escenarios de FeatureExample. Los pedidos salen en instantes fijos
+// (inicio + i * intervalo) sin importar si los anteriores terminaron, como llegan los pedidos de clientes
+// independientes. Cada latencia se registra desde ese instante planeado, así un generador atrasado por la saturación
+// del sistema no esconde la cola (coordinated omission).
+//
+// scale() repite la corrida para cada ExecutionMode y cada tamaño de pool, para ver cómo escalan throughput, latencia
+// y cantidad de hilos con la concurrencia disponible en esta máquina.
+//
+// Uso: LoadGenerator [escenario] [pedidosPorSegundo] [milisegundos] [fanOut] [milisegundosPorEtapa...]
+public class LoadGenerator {
+
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    public static void main(String[] args) {
+        LoadScenario scenario = args.length > 0 ? LoadScenario.valueOf(args[0].toUpperCase()) : LoadScenario.FAN_OUT;
+        double rate = args.length > 1 ? Double.parseDouble(args[1]) : 200;
+        long durationMillis = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+        int fanOut = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        long[] stageMillis = args.length > 4 ? Arrays.stream(args, 4, args.length).mapToLong(Long::parseLong).toArray() : new long[] { 10, 5 };
+
+        LoadProfile profile = new LoadProfile(rate, durationMillis, fanOut, stageMillis);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Escenario " + scenario + ", " + profile + ", " + cores + " cores");
+        for (LoadReport report : scale(scenario, profile, IntStream.of(1, cores, cores * 4, cores * 16).distinct().toArray())) {
+            System.out.println(report);
+        }
+    }
+
+    public static List<LoadReport> scale(LoadScenario scenario, LoadProfile profile, int[] poolSizes) {
+        List<LoadReport> reports = new ArrayList<>();
+        for (int poolSize : poolSizes) {
+            reports.add(run(ExecutionMode.FIXED_POOL, poolSize, scenario, profile));
+            reports.add(run(ExecutionMode.STRIPED, poolSize, scenario, profile));
+        }
+        // Con hilos virtuales el tamaño del pool no aplica: una sola corrida
+        reports.add(run(ExecutionMode.VIRTUAL_THREADS, 0, scenario, profile));
+        return reports;
+    }
+
+    public static LoadReport run(ExecutionMode mode, int poolSize, LoadScenario scenario, LoadProfile profile) {
+        String name = "load-" + mode.name().toLowerCase();
+        ExecutorService executor = mode.newExecutor(name, Math.max(1, poolSize));
+        try {
+            String label = mode == ExecutionMode.VIRTUAL_THREADS ? mode.toString() : mode + "(" + poolSize + ")";
+            return run(label, scenario, profile, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static LoadReport run(String label, LoadScenario scenario, LoadProfile profile, ExecutorService executor) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        Histogram latency = new Histogram();
+        Histogram serviceTime = new Histogram();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong lastCompletion = new AtomicLong();
+        long maxDispatchLag = 0;
+
+        int requests = profile.getRequestCount();
+        long interval = profile.getIntervalNanos();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            long intendedStart = start + i * interval;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long actualStart = System.nanoTime();
+            maxDispatchLag = Math.max(maxDispatchLag, actualStart - intendedStart);
+
+            CompletableFuture<?> future;
+            try {
+                future = scenario.execute(profile, executor);
+            } catch (RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            futures[i] = future.whenComplete((result, ex) ->
+                {
+                    long end = System.nanoTime();
+                    latency.record(end - intendedStart);
+                    serviceTime.record(end - actualStart);
+                    if (ex != null) {
+                        failed.incrementAndGet();
+                    }
+                    completed.incrementAndGet();
+                    lastCompletion.accumulateAndGet(end, Math::max);
+                });
+        }
+
+        try {
+            CompletableFuture.allOf(futures).get(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Los fallos ya quedaron contados; con timeout el reporte incluye solo lo completado
+        }
+
+        long end = Math.max(lastCompletion.get(), start);
+        int largestPoolSize = executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getLargestPoolSize() : -1;
+        return new LoadReport(label, scenario, profile, completed.get(), failed.get(), TimeUnit.NANOSECONDS.toMillis(end - start),
+                latency.snapshot(), serviceTime.snapshot(), maxDispatchLag, threads.getPeakThreadCount(), largestPoolSize);
+    }
+
+}
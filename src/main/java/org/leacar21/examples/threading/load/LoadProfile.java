@@ -0,0 +1,66 @@
+package org.leacar21.examples.threading.load;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Parámetros de una corrida del LoadGenerator: tasa de llegada (open-loop, pedidos por segundo), duración, ancho del
+// fan-out y latencia de cada etapa. Las llegadas tienen un intervalo fijo, así dos corridas con el mismo perfil envían
+// exactamente los mismos pedidos en los mismos instantes.
+public class LoadProfile {
+
+    private final double arrivalRatePerSecond;
+    private final long durationMillis;
+    private final int fanOut;
+    private final long[] stageMillis;
+
+    public LoadProfile(double arrivalRatePerSecond, long durationMillis, int fanOut, long... stageMillis) {
+        if (arrivalRatePerSecond <= 0) {
+            throw new IllegalArgumentException("arrivalRatePerSecond debe ser > 0");
+        }
+        if (durationMillis <= 0) {
+            throw new IllegalArgumentException("durationMillis debe ser > 0");
+        }
+        if (fanOut < 1) {
+            throw new IllegalArgumentException("fanOut debe ser >= 1");
+        }
+        if (stageMillis.length == 0) {
+            throw new IllegalArgumentException("Se necesita al menos una etapa");
+        }
+        this.arrivalRatePerSecond = arrivalRatePerSecond;
+        this.durationMillis = durationMillis;
+        this.fanOut = fanOut;
+        this.stageMillis = stageMillis.clone();
+    }
+
+    public double getArrivalRatePerSecond() {
+        return this.arrivalRatePerSecond;
+    }
+
+    public long getDurationMillis() {
+        return this.durationMillis;
+    }
+
+    public int getFanOut() {
+        return this.fanOut;
+    }
+
+    public long[] getStageMillis() {
+        return this.stageMillis.clone();
+    }
+
+    public int getRequestCount() {
+        return (int) Math.max(1, Math.round(this.arrivalRatePerSecond * this.durationMillis / 1000.0));
+    }
+
+    // Tiempo entre dos llegadas consecutivas
+    public long getIntervalNanos() {
+        return (long) (TimeUnit.SECONDS.toNanos(1) / this.arrivalRatePerSecond);
+    }
+
+    @Override
+    public String toString() {
+        return "rate=" + this.arrivalRatePerSecond + "/s, duration=" + this.durationMillis + " ms, fanOut=" + this.fanOut + ", stages="
+                + Arrays.toString(this.stageMillis) + " ms";
+    }
+
+}
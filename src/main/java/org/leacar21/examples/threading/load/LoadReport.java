@@ -0,0 +1,102 @@
+package org.leacar21.examples.threading.load;
+
+import org.leacar21.examples.threading.metrics.HistogramSnapshot;
+
+// Resultado de una corrida del LoadGenerator. Las latencias están en nanos.
+//
+// latency se mide desde el instante en que el pedido debía salir según la tasa de llegada (corregida por coordinated
+// omission): si el generador se atrasa porque el sistema está saturado, ese atraso cuenta como latencia, como lo
+// vería un cliente real. serviceTime se mide desde que el pedido realmente salió y subestima la cola cuando hay
+// saturación; la diferencia entre los dos es la señal de que la tasa pedida no se sostiene.
+public class LoadReport {
+
+    private final String label;
+    private final LoadScenario scenario;
+    private final LoadProfile profile;
+    private final int requests;
+    private final int failed;
+    private final long elapsedMillis;
+    private final HistogramSnapshot latency;
+    private final HistogramSnapshot serviceTime;
+    private final long maxDispatchLagNanos;
+    private final int peakThreads;
+    private final int largestPoolSize;
+
+    public LoadReport(String label, LoadScenario scenario, LoadProfile profile, int requests, int failed, long elapsedMillis,
+            HistogramSnapshot latency, HistogramSnapshot serviceTime, long maxDispatchLagNanos, int peakThreads, int largestPoolSize) {
+        this.label = label;
+        this.scenario = scenario;
+        this.profile = profile;
+        this.requests = requests;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+        this.latency = latency;
+        this.serviceTime = serviceTime;
+        this.maxDispatchLagNanos = maxDispatchLagNanos;
+        this.peakThreads = peakThreads;
+        this.largestPoolSize = largestPoolSize;
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+
+    public LoadScenario getScenario() {
+        return this.scenario;
+    }
+
+    public LoadProfile getProfile() {
+        return this.profile;
+    }
+
+    // Pedidos completados (con o sin error) antes del timeout
+    public int getRequests() {
+        return this.requests;
+    }
+
+    public int getFailed() {
+        return this.failed;
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    public double getThroughput() {
+        return this.requests * 1000.0 / Math.max(1, this.elapsedMillis);
+    }
+
+    public HistogramSnapshot getLatency() {
+        return this.latency;
+    }
+
+    public HistogramSnapshot getServiceTime() {
+        return this.serviceTime;
+    }
+
+    public long getMaxDispatchLagNanos() {
+        return this.maxDispatchLagNanos;
+    }
+
+    public int getPeakThreads() {
+        return this.peakThreads;
+    }
+
+    // Hilos máximos que llegó a tener el pool, -1 si el executor no es un ThreadPoolExecutor (por ejemplo hilos virtuales)
+    public int getLargestPoolSize() {
+        return this.largestPoolSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-22s %-8s %8.1f req/s  p50=%7.1f  p99=%7.1f  p999=%7.1f ms  (servicio p99=%7.1f ms, atraso=%6.1f ms)  "
+                + "hilos=%d pool=%d  fallidos=%d", this.label, this.scenario, this.getThroughput(), millis(this.latency.getP50()),
+                millis(this.latency.getP99()), millis(this.latency.getP999()), millis(this.serviceTime.getP99()), millis(this.maxDispatchLagNanos),
+                this.peakThreads, this.largestPoolSize, this.failed);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,62 @@
+package org.leacar21.examples.threading.load;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Las formas de composición de FeatureExample, con latencias y ancho tomados del LoadProfile en lugar de los sleeps
+// fijos. Cada etapa bloquea un hilo del executor durante su latencia, igual que getList.
+public enum LoadScenario {
+
+    // Como completableFeatureCallbacks: una cadena de etapas, una después de la otra
+    CHAIN {
+        @Override
+        public CompletableFuture<?> execute(LoadProfile profile, Executor executor) {
+            return chain(profile.getStageMillis(), executor);
+        }
+    },
+
+    // Como completableFeatureCombine: dos cadenas independientes unidas con thenCombine
+    COMBINE {
+        @Override
+        public CompletableFuture<?> execute(LoadProfile profile, Executor executor) {
+            long[] stageMillis = profile.getStageMillis();
+            return chain(stageMillis, executor).thenCombine(chain(stageMillis, executor), Long::sum);
+        }
+    },
+
+    // Como completableFeatureExample1 y getListBatch: fanOut cadenas en paralelo unidas con allOf
+    FAN_OUT {
+        @Override
+        public CompletableFuture<?> execute(LoadProfile profile, Executor executor) {
+            long[] stageMillis = profile.getStageMillis();
+            CompletableFuture<?>[] branches = new CompletableFuture<?>[profile.getFanOut()];
+            for (int i = 0; i < branches.length; i++) {
+                branches[i] = chain(stageMillis, executor);
+            }
+            return CompletableFuture.allOf(branches);
+        }
+    };
+
+    public abstract CompletableFuture<?> execute(LoadProfile profile, Executor executor);
+
+    // --------------------------------------------------------------------------------
+
+    private static CompletableFuture<Long> chain(long[] stageMillis, Executor executor) {
+        CompletableFuture<Long> future = CompletableFuture.supplyAsync(() -> stage(stageMillis[0]), executor);
+        for (int i = 1; i < stageMillis.length; i++) {
+            long millis = stageMillis[i];
+            future = future.thenApplyAsync(total -> total + stage(millis), executor);
+        }
+        return future;
+    }
+
+    private static long stage(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return millis;
+    }
+
+}
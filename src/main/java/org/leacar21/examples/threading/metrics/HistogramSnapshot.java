@@ -0,0 +1,62 @@
+package org.leacar21.examples.threading.metrics;
+
+import java.beans.ConstructorProperties;
+
+// Foto inmutable de un Histogram. Las unidades son las de los valores registrados (nanos en StageMetrics).
+// Por sus getters y @ConstructorProperties JMX la expone como CompositeData.
+public class HistogramSnapshot {
+
+    private final long count;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+    private final long max;
+
+    @ConstructorProperties({ "count", "mean", "p50", "p90", "p99", "p999", "max" })
+    public HistogramSnapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    public double getMean() {
+        return this.mean;
+    }
+
+    public long getP50() {
+        return this.p50;
+    }
+
+    public long getP90() {
+        return this.p90;
+    }
+
+    public long getP99() {
+        return this.p99;
+    }
+
+    public long getP999() {
+        return this.p999;
+    }
+
+    public long getMax() {
+        return this.max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + this.count + ", mean=" + (long) this.mean + ", p50=" + this.p50 + ", p90=" + this.p90 + ", p99=" + this.p99 + ", p999="
+                + this.p999 + ", max=" + this.max;
+    }
+
+}
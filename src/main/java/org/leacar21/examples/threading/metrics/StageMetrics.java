@@ -0,0 +1,165 @@
+package org.leacar21.examples.threading.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Instrumentación por etapa de cadenas de CompletableFuture. Para cada etapa con nombre registra en histogramas:
+// - queue wait: cuánto esperó la tarea en la cola del executor antes de empezar (instrument(stage, executor))
+// - execution: cuánto tardó la función de la etapa (instrument o timed)
+// - callback delay: cuánto pasó desde que se completó el futuro anterior hasta que arrancó el callback (onComplete)
+//
+// Los datos se leen con snapshot()/stage(nombre) o por JMX si se creó con un dominio JMX.
+public class StageMetrics {
+
+    private final Map<String, StageRecorder> stages = new ConcurrentHashMap<>();
+    private final String jmxDomain;
+    private final MBeanServer mbeanServer;
+
+    // Sin JMX
+    public StageMetrics() {
+        this(null);
+    }
+
+    // Registra cada etapa como <jmxDomain>:type=StageMetrics,stage=<nombre>
+    public StageMetrics(String jmxDomain) {
+        this.jmxDomain = jmxDomain;
+        this.mbeanServer = jmxDomain != null ? ManagementFactory.getPlatformMBeanServer() : null;
+    }
+
+    public StageRecorder stage(String name) {
+        return this.stages.computeIfAbsent(name, this::newRecorder);
+    }
+
+    // Foto inmutable de todas las etapas, ordenadas por nombre: no cambia aunque se sigan registrando valores
+    public Map<String, StageSnapshot> snapshot() {
+        Map<String, StageSnapshot> snapshot = new TreeMap<>();
+        for (StageRecorder recorder : this.stages.values()) {
+            snapshot.put(recorder.getStage(), recorder.snapshot());
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    // Executor que mide la espera en cola y la ejecución de cada tarea bajo el nombre de la etapa
+    public Executor instrument(String stage, Executor delegate) {
+        StageRecorder recorder = this.stage(stage);
+        return task ->
+            {
+                long submitted = System.nanoTime();
+                delegate.execute(() ->
+                    {
+                        long started = System.nanoTime();
+                        recorder.recordQueueWait(started - submitted);
+                        try {
+                            task.run();
+                        } finally {
+                            recorder.recordExecution(System.nanoTime() - started);
+                        }
+                    });
+            };
+    }
+
+    // Para etapas que no pasan por un executor instrumentado (por ejemplo thenApply sin Async)
+    public <T, R> Function<T, R> timed(String stage, Function<T, R> function) {
+        StageRecorder recorder = this.stage(stage);
+        return value ->
+            {
+                long started = System.nanoTime();
+                try {
+                    return function.apply(value);
+                } finally {
+                    recorder.recordExecution(System.nanoTime() - started);
+                }
+            };
+    }
+
+    public <T> Supplier<T> timed(String stage, Supplier<T> supplier) {
+        StageRecorder recorder = this.stage(stage);
+        return () ->
+            {
+                long started = System.nanoTime();
+                try {
+                    return supplier.get();
+                } finally {
+                    recorder.recordExecution(System.nanoTime() - started);
+                }
+            };
+    }
+
+    // Equivalente a source.whenCompleteAsync(action, executor) que además registra el callback delay y la ejecución
+    public <T> CompletableFuture<T> onComplete(String stage, CompletableFuture<T> source, BiConsumer<? super T, ? super Throwable> action,
+            Executor executor) {
+        StageRecorder recorder = this.stage(stage);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        source.whenComplete((value, ex) ->
+            {
+                long completed = System.nanoTime();
+                try {
+                    executor.execute(() ->
+                        {
+                            long started = System.nanoTime();
+                            recorder.recordCallbackDelay(started - completed);
+                            try {
+                                action.accept(value, ex);
+                                if (ex != null) {
+                                    result.completeExceptionally(ex);
+                                } else {
+                                    result.complete(value);
+                                }
+                            } catch (Throwable e) {
+                                result.completeExceptionally(ex != null ? ex : e);
+                            } finally {
+                                recorder.recordExecution(System.nanoTime() - started);
+                            }
+                        });
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        return result;
+    }
+
+    public void unregisterAll() {
+        if (this.mbeanServer == null) {
+            return;
+        }
+        for (String stage : this.stages.keySet()) {
+            try {
+                this.mbeanServer.unregisterMBean(this.objectName(stage));
+            } catch (JMException e) {
+                // Ya no estaba registrada
+            }
+        }
+    }
+
+    private StageRecorder newRecorder(String name) {
+        StageRecorder recorder = new StageRecorder(name);
+        if (this.mbeanServer != null) {
+            try {
+                ObjectName objectName = this.objectName(name);
+                if (!this.mbeanServer.isRegistered(objectName)) {
+                    this.mbeanServer.registerMBean(recorder, objectName);
+                }
+            } catch (JMException e) {
+                throw new IllegalStateException("No se pudo registrar la etapa " + name + " en JMX", e);
+            }
+        }
+        return recorder;
+    }
+
+    private ObjectName objectName(String stage) throws JMException {
+        return new ObjectName(this.jmxDomain + ":type=StageMetrics,stage=" + ObjectName.quote(stage));
+    }
+
+}
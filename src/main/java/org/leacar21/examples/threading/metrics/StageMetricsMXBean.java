@@ -0,0 +1,19 @@
+package org.leacar21.examples.threading.metrics;
+
+// Vista JMX de las métricas de una etapa (una instancia por etapa, con nombre stage=<nombre>). Valores en nanos.
+public interface StageMetricsMXBean {
+
+    String getStage();
+
+    // Tiempo desde que la tarea se envió al executor hasta que empezó a ejecutarse
+    HistogramSnapshot getQueueWait();
+
+    // Tiempo de ejecución de la función de la etapa
+    HistogramSnapshot getExecution();
+
+    // Tiempo desde que se completó el futuro anterior hasta que empezó el callback
+    HistogramSnapshot getCallbackDelay();
+
+    void reset();
+
+}
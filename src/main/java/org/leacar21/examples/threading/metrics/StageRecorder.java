@@ -0,0 +1,63 @@
+package org.leacar21.examples.threading.metrics;
+
+// Histogramas de una etapa con nombre.
+public class StageRecorder implements StageMetricsMXBean {
+
+    private final String stage;
+    private final Histogram queueWait = new Histogram();
+    private final Histogram execution = new Histogram();
+    private final Histogram callbackDelay = new Histogram();
+
+    StageRecorder(String stage) {
+        this.stage = stage;
+    }
+
+    public void recordQueueWait(long nanos) {
+        this.queueWait.record(nanos);
+    }
+
+    public void recordExecution(long nanos) {
+        this.execution.record(nanos);
+    }
+
+    public void recordCallbackDelay(long nanos) {
+        this.callbackDelay.record(nanos);
+    }
+
+    @Override
+    public String getStage() {
+        return this.stage;
+    }
+
+    @Override
+    public HistogramSnapshot getQueueWait() {
+        return this.queueWait.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getExecution() {
+        return this.execution.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getCallbackDelay() {
+        return this.callbackDelay.snapshot();
+    }
+
+    public StageSnapshot snapshot() {
+        return new StageSnapshot(this.stage, this.getQueueWait(), this.getExecution(), this.getCallbackDelay());
+    }
+
+    @Override
+    public void reset() {
+        this.queueWait.reset();
+        this.execution.reset();
+        this.callbackDelay.reset();
+    }
+
+    @Override
+    public String toString() {
+        return this.snapshot().toString();
+    }
+
+}
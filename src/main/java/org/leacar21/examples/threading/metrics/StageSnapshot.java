@@ -0,0 +1,39 @@
+package org.leacar21.examples.threading.metrics;
+
+// Foto inmutable de las métricas de una etapa: los mismos datos que expone StageMetricsMXBean, tomados en un instante.
+public class StageSnapshot {
+
+    private final String stage;
+    private final HistogramSnapshot queueWait;
+    private final HistogramSnapshot execution;
+    private final HistogramSnapshot callbackDelay;
+
+    public StageSnapshot(String stage, HistogramSnapshot queueWait, HistogramSnapshot execution, HistogramSnapshot callbackDelay) {
+        this.stage = stage;
+        this.queueWait = queueWait;
+        this.execution = execution;
+        this.callbackDelay = callbackDelay;
+    }
+
+    public String getStage() {
+        return this.stage;
+    }
+
+    public HistogramSnapshot getQueueWait() {
+        return this.queueWait;
+    }
+
+    public HistogramSnapshot getExecution() {
+        return this.execution;
+    }
+
+    public HistogramSnapshot getCallbackDelay() {
+        return this.callbackDelay;
+    }
+
+    @Override
+    public String toString() {
+        return this.stage + " queueWait[" + this.queueWait + "] execution[" + this.execution + "] callbackDelay[" + this.callbackDelay + "]";
+    }
+
+}
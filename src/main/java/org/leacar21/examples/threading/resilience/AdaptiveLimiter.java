@@ -0,0 +1,214 @@
+package org.leacar21.examples.threading.resilience;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.leacar21.examples.threading.futures.Delays;
+
+// Limitador de concurrencia adaptativo (AIMD guiado por latencia) delante de supplyAsync.
+//
+// En lugar de un tamaño fijo de pool, el límite de pedidos en vuelo se ajusta según la latencia observada:
+// - Se mantiene la latencia mínima reciente (minRtt) como referencia de "sin cola".
+// - Si una llamada falla o tarda más de minRtt * tolerance (y más de 1 ms por encima de minRtt, para ignorar el ruido),
+//   el límite baja multiplicativamente (x BACKOFF_RATIO).
+// - Si no, y el límite se está usando, sube aditivamente (~ +1 por cada 'limit' llamadas).
+//
+// Los pedidos que superan el límite esperan en una cola corta (hasta maxQueued pedidos y maxQueueWait); si no hay lugar o
+// se vence la espera fallan rápido con LimitExceededException. Así, bajo sobrecarga la latencia se mantiene plana en
+// lugar de crecer con colas sin límite.
+public class AdaptiveLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    // Cada cuántas muestras se renueva la latencia mínima, para seguir cambios del backend
+    private static final int MIN_RTT_WINDOW = 250;
+    // Por debajo de este exceso sobre minRtt la variación se considera ruido y no congestión
+    private static final long RTT_SLACK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final int maxQueued;
+    private final long maxQueueWaitNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    // Pedido esperando lugar
+    private final class Pending {
+        final Runnable start;
+        final CompletableFuture<?> result;
+        volatile ScheduledFuture<?> timeout;
+
+        Pending(Runnable start, CompletableFuture<?> result) {
+            this.start = start;
+            this.result = result;
+        }
+    }
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, int maxQueued, long maxQueueWait, TimeUnit unit) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Se requiere 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.maxQueued = maxQueued;
+        this.maxQueueWaitNanos = unit.toNanos(maxQueueWait);
+    }
+
+    // supplyAsync limitado: el supplier corre en el executor solo cuando hay lugar
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        return this.submit(() -> CompletableFuture.supplyAsync(supplier, executor));
+    }
+
+    // Limita una llamada asincrónica cualquiera; la latencia medida va desde que arranca hasta que completa su futuro
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> this.start(call, result);
+        if (this.tryAcquire()) {
+            start.run();
+            return result;
+        }
+        if (this.queued.incrementAndGet() > this.maxQueued) {
+            this.queued.decrementAndGet();
+            this.reject(result, "Límite de concurrencia superado y cola llena");
+            return result;
+        }
+        Pending pending = new Pending(start, result);
+        this.queue.add(pending);
+        pending.timeout = Delays.schedule(() ->
+            {
+                if (this.queue.remove(pending)) {
+                    this.queued.decrementAndGet();
+                    this.reject(result, "Límite de concurrencia superado y se venció la espera en cola");
+                }
+            } , this.maxQueueWaitNanos, TimeUnit.NANOSECONDS);
+        // Pudo liberarse lugar mientras se encolaba
+        this.drainQueue();
+        return result;
+    }
+
+    // Rechaza con LimitExceededException todos los pedidos que esperan en cola (por ejemplo al cerrar); las llamadas en
+    // vuelo siguen su curso. Devuelve cuántos rechazó.
+    public int rejectQueued() {
+        int count = 0;
+        Pending pending;
+        while ((pending = this.queue.poll()) != null) {
+            this.queued.decrementAndGet();
+            if (pending.timeout != null) {
+                pending.timeout.cancel(false);
+            }
+            this.reject(pending.result, "El limitador se cerró con el pedido en cola");
+            count++;
+        }
+        return count;
+    }
+
+    public int getLimit() {
+        return (int) this.limit;
+    }
+
+    public int getInFlight() {
+        return this.inFlight.get();
+    }
+
+    public int getQueued() {
+        return this.queued.get();
+    }
+
+    public long getRejectedCount() {
+        return this.rejected.get();
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = this.inFlight.get();
+            if (current >= (int) this.limit) {
+                return false;
+            }
+        } while (!this.inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> call, CompletableFuture<T> result) {
+        long started = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (Throwable e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((value, ex) ->
+            {
+                this.inFlight.decrementAndGet();
+                this.onSample(System.nanoTime() - started, ex != null);
+                this.drainQueue();
+                if (ex != null) {
+                    result.completeExceptionally(ex);
+                } else {
+                    result.complete(value);
+                }
+            });
+    }
+
+    private void drainQueue() {
+        while (!this.queue.isEmpty() && this.tryAcquire()) {
+            Pending pending = this.queue.poll();
+            if (pending == null) {
+                this.inFlight.decrementAndGet();
+                return;
+            }
+            this.queued.decrementAndGet();
+            if (pending.timeout != null) {
+                pending.timeout.cancel(false);
+            }
+            if (pending.result.isDone()) {
+                // El llamador lo canceló mientras esperaba
+                this.inFlight.decrementAndGet();
+                continue;
+            }
+            pending.start.run();
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, boolean failed) {
+        this.windowMinRttNanos = Math.min(this.windowMinRttNanos, rttNanos);
+        if (++this.windowSamples >= MIN_RTT_WINDOW) {
+            this.minRttNanos = this.windowMinRttNanos;
+            this.windowMinRttNanos = Long.MAX_VALUE;
+            this.windowSamples = 0;
+        }
+        this.minRttNanos = Math.min(this.minRttNanos, rttNanos);
+
+        double current = this.limit;
+        if (failed || (rttNanos > this.minRttNanos * this.tolerance && rttNanos - this.minRttNanos > RTT_SLACK_NANOS)) {
+            this.limit = Math.max(this.minLimit, current * BACKOFF_RATIO);
+        } else if (this.inFlight.get() + 1 >= current / 2) {
+            this.limit = Math.min(this.maxLimit, current + 1.0 / current);
+        }
+    }
+
+    private void reject(CompletableFuture<?> result, String message) {
+        this.rejected.incrementAndGet();
+        result.completeExceptionally(new LimitExceededException(message, this.getLimit()));
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.leacar21.examples.threading.resilience;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// Aislamiento por proveedor: como máximo maxConcurrent llamadas en vuelo. Si no hay lugar falla enseguida con
+// BulkheadFullException, así un proveedor lento no puede quedarse con todos los hilos del executor compartido.
+public class Bulkhead {
+
+    private final String provider;
+    private final int maxConcurrent;
+    private final Semaphore permits;
+
+    public Bulkhead(String provider, int maxConcurrent) {
+        this.provider = provider;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+        if (!this.permits.tryAcquire()) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new BulkheadFullException(this.provider, this.maxConcurrent));
+            return rejected;
+        }
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (Throwable e) {
+            this.permits.release();
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        future.whenComplete((value, ex) -> this.permits.release());
+        return future;
+    }
+
+    public int getAvailablePermits() {
+        return this.permits.availablePermits();
+    }
+
+}
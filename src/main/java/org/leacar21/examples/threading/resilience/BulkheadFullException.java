@@ -0,0 +1,21 @@
+package org.leacar21.examples.threading.resilience;
+
+import java.util.concurrent.RejectedExecutionException;
+
+// La llamada no se hizo porque el proveedor ya tiene el máximo de llamadas concurrentes permitidas.
+public class BulkheadFullException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String provider;
+
+    public BulkheadFullException(String provider, int maxConcurrent) {
+        super("Bulkhead lleno para el proveedor '" + provider + "' (" + maxConcurrent + " llamadas en vuelo)");
+        this.provider = provider;
+    }
+
+    public String getProvider() {
+        return this.provider;
+    }
+
+}
@@ -0,0 +1,159 @@
+package org.leacar21.examples.threading.resilience;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Circuit breaker por tasa de error sobre las últimas N llamadas.
+//
+// - CLOSED: las llamadas pasan; si en la ventana (con al menos minimumCalls) la tasa de error llega a
+//   failureRateThreshold, se abre.
+// - OPEN: las llamadas fallan enseguida con CircuitOpenException, sin tocar al proveedor ni ocupar hilos, durante
+//   openDuration.
+// - HALF_OPEN: se dejan pasar hasta halfOpenCalls llamadas de prueba; si todas salen bien se cierra, si alguna falla
+//   se vuelve a abrir.
+//
+// Cada cambio de estado abre una nueva generación, y cada llamada recuerda la generación en la que obtuvo el permiso. Los
+// resultados de una generación anterior (por ejemplo una llamada lenta lanzada con el circuito cerrado que termina ya en
+// HALF_OPEN) se ignoran: solo cuentan como prueba las llamadas que se permitieron como prueba.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String provider;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    // Ventana circular de resultados: true = falla
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermitted;
+    private int halfOpenSucceeded;
+    private long generation;
+
+    public CircuitBreaker(String provider, int windowSize, int minimumCalls, double failureRateThreshold, long openDuration, TimeUnit unit,
+            int halfOpenCalls) {
+        this.provider = provider;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = unit.toNanos(openDuration);
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+        long permitted = this.tryAcquirePermission();
+        if (permitted < 0) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new CircuitOpenException(this.provider));
+            return rejected;
+        }
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (Throwable e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((value, ex) -> this.onResult(permitted, ex != null));
+        return future;
+    }
+
+    public synchronized State getState() {
+        this.updateState(System.nanoTime());
+        return this.state;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    // Generación en la que se concedió el permiso, o -1 si se rechaza
+    private synchronized long tryAcquirePermission() {
+        this.updateState(System.nanoTime());
+        switch (this.state) {
+            case CLOSED:
+                return this.generation;
+            case HALF_OPEN:
+                if (this.halfOpenPermitted < this.halfOpenCalls) {
+                    this.halfOpenPermitted++;
+                    return this.generation;
+                }
+                return -1;
+            case OPEN:
+            default:
+                return -1;
+        }
+    }
+
+    private synchronized void onResult(long permitted, boolean failed) {
+        if (permitted != this.generation) {
+            // Resultado de una llamada que empezó antes del último cambio de estado: no cambia nada
+            return;
+        }
+        switch (this.state) {
+            case HALF_OPEN:
+                if (failed) {
+                    this.open();
+                } else if (++this.halfOpenSucceeded >= this.halfOpenCalls) {
+                    this.close();
+                }
+                break;
+            case CLOSED:
+                this.record(failed);
+                if (this.windowCount >= this.minimumCalls && (double) this.windowFailures / this.windowCount >= this.failureRateThreshold) {
+                    this.open();
+                }
+                break;
+            case OPEN:
+            default:
+                break;
+        }
+    }
+
+    private void updateState(long now) {
+        if (this.state == State.OPEN && now - this.openedAt >= this.openDurationNanos) {
+            this.state = State.HALF_OPEN;
+            this.generation++;
+            this.halfOpenPermitted = 0;
+            this.halfOpenSucceeded = 0;
+        }
+    }
+
+    private void record(boolean failed) {
+        if (this.windowCount == this.window.length) {
+            if (this.window[this.windowIndex]) {
+                this.windowFailures--;
+            }
+        } else {
+            this.windowCount++;
+        }
+        this.window[this.windowIndex] = failed;
+        if (failed) {
+            this.windowFailures++;
+        }
+        this.windowIndex = (this.windowIndex + 1) % this.window.length;
+    }
+
+    private void open() {
+        this.state = State.OPEN;
+        this.generation++;
+        this.openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        this.state = State.CLOSED;
+        this.generation++;
+        this.windowIndex = 0;
+        this.windowCount = 0;
+        this.windowFailures = 0;
+    }
+
+}
@@ -0,0 +1,19 @@
+package org.leacar21.examples.threading.resilience;
+
+// La llamada no se hizo porque el circuit breaker del proveedor está abierto.
+public class CircuitOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String provider;
+
+    public CircuitOpenException(String provider) {
+        super("Circuito abierto para el proveedor '" + provider + "'");
+        this.provider = provider;
+    }
+
+    public String getProvider() {
+        return this.provider;
+    }
+
+}
@@ -0,0 +1,207 @@
+package org.leacar21.examples.threading.resilience;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.leacar21.examples.threading.futures.Delays;
+
+// Hedged requests para controlar la latencia de cola (p99).
+//
+// Se lanza el primer intento y, si no respondió luego de la latencia del percentil configurado (por ejemplo p95 de las
+// últimas llamadas exitosas), se lanza un intento de respaldo. Gana el primer intento EXITOSO: a diferencia de
+// applyToEither/anyOf, un intento que falla no gana la carrera, sino que adelanta el siguiente respaldo. Cuando hay
+// ganador, los demás intentos se cancelan con interrupción (cancel(true) sobre el Future del executor), así no siguen
+// ocupando hilos del pool.
+//
+// Como el respaldo solo sale cuando el primario ya superó el percentil p, la carga extra es aproximadamente (1 - p).
+public class Hedger {
+
+    private static final int WINDOW_SIZE = 256;
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final ExecutorService executor;
+    private final long initialDelayNanos;
+    private final int maxAttempts;
+    private final LatencyWindow latencies;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong cancelledLosers = new AtomicLong();
+
+    // percentile: por ejemplo 0.95 para lanzar el respaldo luego del p95 observado.
+    // initialDelay: demora usada mientras no hay muestras suficientes.
+    // maxAttempts: intentos totales por llamada, incluido el primario.
+    public Hedger(ExecutorService executor, double percentile, long initialDelay, TimeUnit unit, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts debe ser >= 1");
+        }
+        this.executor = executor;
+        this.initialDelayNanos = unit.toNanos(initialDelay);
+        this.maxAttempts = maxAttempts;
+        this.latencies = new LatencyWindow(WINDOW_SIZE, percentile, RECOMPUTE_EVERY);
+    }
+
+    public <T> CompletableFuture<T> call(Callable<T> call) {
+        this.calls.incrementAndGet();
+        HedgedCall<T> hedged = new HedgedCall<>(call);
+        hedged.launch();
+        return hedged.result;
+    }
+
+    // Demora actual antes de lanzar un respaldo
+    public long getHedgeDelayNanos() {
+        long percentile = this.latencies.percentileNanos();
+        return percentile >= 0 ? percentile : this.initialDelayNanos;
+    }
+
+    public long getCallCount() {
+        return this.calls.get();
+    }
+
+    // Cantidad de intentos de respaldo lanzados (carga extra)
+    public long getHedgeCount() {
+        return this.hedges.get();
+    }
+
+    public long getCancelledLoserCount() {
+        return this.cancelledLosers.get();
+    }
+
+    // Primer futuro que termina con éxito; falla solo si fallan todos (con la última excepción).
+    // Es el reemplazo de anyOf cuando un error no debe ganarle a un resultado válido que llega después.
+    @SafeVarargs
+    public static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<? extends T>... futures) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<? extends T> future : futures) {
+            future.whenComplete((value, ex) ->
+                {
+                    if (ex == null) {
+                        result.complete(value);
+                    } else if (failures.incrementAndGet() == futures.length) {
+                        result.completeExceptionally(ex);
+                    }
+                });
+        }
+        if (futures.length == 0) {
+            result.completeExceptionally(new IllegalArgumentException("Sin futuros"));
+        }
+        return result;
+    }
+
+    public static <T> CompletableFuture<T> firstSuccessful(List<CompletableFuture<T>> futures) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<T>[] array = (CompletableFuture<T>[]) futures.toArray(new CompletableFuture<?>[0]);
+        return firstSuccessful(array);
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private final class HedgedCall<T> {
+
+        // Un intento y el Future con el que se puede interrumpir
+        private final class Attempt implements Runnable {
+
+            private volatile Future<?> future;
+
+            @Override
+            public void run() {
+                HedgedCall.this.runAttempt(this);
+            }
+        }
+
+        private final Callable<T> call;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Queue<Attempt> attempts = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger launched = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicReference<Attempt> winner = new AtomicReference<>();
+        // Respaldo agendado; al reagendar (un intento fallido adelanta el siguiente) se cancela el anterior
+        private final AtomicReference<ScheduledFuture<?>> pendingHedge = new AtomicReference<>();
+
+        HedgedCall(Callable<T> call) {
+            this.call = call;
+            // Al terminar (con éxito, error o cancelación del llamador) se cancelan los intentos y el respaldo pendiente
+            this.result.whenComplete((v, e) -> this.cancelAll());
+        }
+
+        void launch() {
+            int attempt;
+            do {
+                attempt = this.launched.get();
+                if (attempt >= Hedger.this.maxAttempts || this.result.isDone()) {
+                    return;
+                }
+            } while (!this.launched.compareAndSet(attempt, attempt + 1));
+
+            if (attempt > 0) {
+                Hedger.this.hedges.incrementAndGet();
+            }
+            Attempt task = new Attempt();
+            this.attempts.add(task);
+            task.future = Hedger.this.executor.submit(task);
+            if (this.result.isDone()) {
+                this.cancel(task);
+            }
+            if (attempt + 1 < Hedger.this.maxAttempts) {
+                ScheduledFuture<?> hedge = Delays.schedule(this::launch, Hedger.this.getHedgeDelayNanos(), TimeUnit.NANOSECONDS);
+                ScheduledFuture<?> previous = this.pendingHedge.getAndSet(hedge);
+                if (previous != null) {
+                    previous.cancel(false);
+                }
+                // Si el resultado se completó mientras se agendaba, cancelAll ya no ve este respaldo
+                if (this.result.isDone()) {
+                    hedge.cancel(false);
+                }
+            }
+        }
+
+        private void runAttempt(Attempt attempt) {
+            long start = System.nanoTime();
+            try {
+                T value = this.call.call();
+                Hedger.this.latencies.record(System.nanoTime() - start);
+                // Solo un intento puede ganar; el ganador no se cancela a sí mismo al completar el resultado
+                if (this.winner.compareAndSet(null, attempt)) {
+                    this.result.complete(value);
+                }
+            } catch (Throwable e) {
+                if (this.failed.incrementAndGet() >= Hedger.this.maxAttempts) {
+                    this.result.completeExceptionally(e);
+                } else {
+                    // Un intento fallido no gana la carrera: se adelanta el siguiente respaldo
+                    this.launch();
+                }
+            }
+        }
+
+        private void cancelAll() {
+            ScheduledFuture<?> hedge = this.pendingHedge.get();
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+            for (Attempt attempt : this.attempts) {
+                this.cancel(attempt);
+            }
+        }
+
+        private void cancel(Attempt attempt) {
+            Future<?> future = attempt.future;
+            if (attempt != this.winner.get() && future != null && !future.isDone() && future.cancel(true)) {
+                Hedger.this.cancelledLosers.incrementAndGet();
+            }
+        }
+
+    }
+
+}
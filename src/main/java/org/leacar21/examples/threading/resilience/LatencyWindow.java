@@ -0,0 +1,54 @@
+package org.leacar21.examples.threading.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Ventana circular con las últimas N latencias (en nanos), para estimar un percentil reciente.
+// El percentil se recalcula cada 'recomputeEvery' muestras y se cachea, así leerlo no cuesta ordenar la ventana.
+class LatencyWindow {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    private final double percentile;
+    private final int recomputeEvery;
+    private volatile long cachedPercentile = -1;
+
+    LatencyWindow(int size, double percentile, int recomputeEvery) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("El percentil debe estar en (0, 1]: " + percentile);
+        }
+        this.samples = new AtomicLongArray(size);
+        this.percentile = percentile;
+        this.recomputeEvery = recomputeEvery;
+    }
+
+    void record(long nanos) {
+        long n = this.count.getAndIncrement();
+        this.samples.set((int) (n % this.samples.length()), nanos);
+        if ((n + 1) % this.recomputeEvery == 0) {
+            this.cachedPercentile = this.compute(n + 1);
+        }
+    }
+
+    // Percentil de la ventana, o -1 si todavía no hay muestras suficientes
+    long percentileNanos() {
+        return this.cachedPercentile;
+    }
+
+    long sampleCount() {
+        return this.count.get();
+    }
+
+    private long compute(long recorded) {
+        int size = (int) Math.min(recorded, this.samples.length());
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = this.samples.get(i);
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(this.percentile * size) - 1;
+        return copy[Math.max(0, Math.min(size - 1, index))];
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.leacar21.examples.threading.resilience;
+
+import java.util.concurrent.RejectedExecutionException;
+
+// Rechazo de AdaptiveLimiter: se superó el límite de concurrencia y no había lugar (o tiempo) para esperar en la cola.
+public class LimitExceededException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int limit;
+
+    public LimitExceededException(String message, int limit) {
+        super(message + " (límite actual " + limit + ")");
+        this.limit = limit;
+    }
+
+    public int getLimit() {
+        return this.limit;
+    }
+
+}
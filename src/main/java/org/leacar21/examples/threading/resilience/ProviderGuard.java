@@ -0,0 +1,51 @@
+package org.leacar21.examples.threading.resilience;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Capa de resiliencia asincrónica de un proveedor, construida sobre exceptionally/handle:
+// retry( bulkhead( circuitBreaker( llamada ) ) ) y, si todo falla, el fallback.
+//
+// - El bulkhead limita cuántas llamadas en vuelo puede tener este proveedor. Va por fuera del circuit breaker: un
+//   BulkheadFullException es saturación local, no una falla del proveedor, y no debe contar para abrir el circuito.
+// - El circuit breaker corta las llamadas mientras el proveedor está fallando: van directo al fallback sin ocupar hilos.
+// - Los reintentos esperan con backoff y jitter sobre el timer, y no reintentan los rechazos del circuito o del bulkhead.
+public class ProviderGuard {
+
+    private final String provider;
+    private final Retry retry;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public ProviderGuard(String provider, Retry retry, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        this.provider = provider;
+        this.retry = retry;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+    }
+
+    public String getProvider() {
+        return this.provider;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return this.circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return this.bulkhead;
+    }
+
+    // Llamada protegida; los errores finales se propagan
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+        return this.retry.call(() -> this.bulkhead.call(() -> this.circuitBreaker.call(call)));
+    }
+
+    // Llamada protegida; si falla (incluido circuito abierto o bulkhead lleno) se usa el fallback
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call, Function<Throwable, ? extends T> fallback) {
+        return this.call(call).exceptionally(e -> fallback.apply(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+    }
+
+}
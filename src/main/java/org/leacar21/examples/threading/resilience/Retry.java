@@ -0,0 +1,82 @@
+package org.leacar21.examples.threading.resilience;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.leacar21.examples.threading.futures.Delays;
+
+// Reintentos con backoff exponencial y jitter ("full jitter": espera aleatoria entre 0 y min(maxDelay, baseDelay * 2^n)).
+// La espera entre intentos se hace con Delays, sobre el timer compartido: ningún hilo queda bloqueado esperando para
+// reintentar. Por defecto no se reintentan los rechazos rápidos (circuito abierto, bulkhead lleno), que irían directo
+// al fallback.
+//
+// Los reintentos invocan al supplier desde el hilo timer: el supplier solo debe lanzar la llamada asincrónica (por
+// ejemplo con supplyAsync sobre un executor), no hacer el trabajo.
+public class Retry {
+
+    private static final Predicate<Throwable> DEFAULT_RETRY_ON = e -> !(e instanceof CircuitOpenException) && !(e instanceof BulkheadFullException);
+
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final Predicate<Throwable> retryOn;
+
+    public Retry(int maxAttempts, long baseDelay, long maxDelay, TimeUnit unit) {
+        this(maxAttempts, baseDelay, maxDelay, unit, DEFAULT_RETRY_ON);
+    }
+
+    public Retry(int maxAttempts, long baseDelay, long maxDelay, TimeUnit unit, Predicate<Throwable> retryOn) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts debe ser >= 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = unit.toNanos(baseDelay);
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.retryOn = retryOn;
+    }
+
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        this.attempt(call, 1, result);
+        return result;
+    }
+
+    // Espera antes del intento número 'attempt' + 1
+    long backoffNanos(int attempt) {
+        long exponential = this.baseDelayNanos << Math.min(attempt - 1, 30);
+        long cap = exponential <= 0 ? this.maxDelayNanos : Math.min(this.maxDelayNanos, exponential);
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private <T> void attempt(Supplier<CompletableFuture<T>> call, int attempt, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (Throwable e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((value, ex) ->
+            {
+                if (ex == null) {
+                    result.complete(value);
+                } else if (attempt < this.maxAttempts && this.retryOn.test(unwrap(ex))) {
+                    Delays.delay(this.backoffNanos(attempt), TimeUnit.NANOSECONDS).thenRun(() -> this.attempt(call, attempt + 1, result));
+                } else {
+                    result.completeExceptionally(ex);
+                }
+            });
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+}
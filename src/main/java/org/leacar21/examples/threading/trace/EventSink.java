@@ -0,0 +1,20 @@
+package org.leacar21.examples.threading.trace;
+
+// Destino de los eventos de traza de las etapas. Los mensajes son plantillas con '{}' como marcador de cada parámetro,
+// así el texto final solo se arma (si es que se arma) fuera del hilo que ejecuta la etapa, en lugar de concatenar con '+'
+// en cada completion.
+public interface EventSink {
+
+    // Permite evitar trabajo previo al log (por ejemplo calcular un parámetro) cuando la traza está desactivada
+    boolean isEnabled();
+
+    void log(String template);
+
+    void log(String template, Object arg);
+
+    // Sobrecarga para valores primitivos, evita el boxing del parámetro
+    void log(String template, long arg);
+
+    void log(String template, Object arg1, Object arg2);
+
+}
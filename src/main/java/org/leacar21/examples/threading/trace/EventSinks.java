@@ -0,0 +1,81 @@
+package org.leacar21.examples.threading.trace;
+
+import java.io.PrintStream;
+
+// Fábrica de EventSink.
+public final class EventSinks {
+
+    private static final EventSink NOOP = new EventSink() {
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void log(String template) {
+        }
+
+        @Override
+        public void log(String template, Object arg) {
+        }
+
+        @Override
+        public void log(String template, long arg) {
+        }
+
+        @Override
+        public void log(String template, Object arg1, Object arg2) {
+        }
+    };
+
+    private EventSinks() {
+    }
+
+    // Descarta todos los eventos: la traza desactivada cuesta una llamada virtual vacía.
+    public static EventSink noop() {
+        return NOOP;
+    }
+
+    // Escribe cada evento en el momento con System.out.println (comportamiento original de los ejemplos): arma el
+    // String en el hilo de la etapa y compite por el lock del stream.
+    public static EventSink console() {
+        return new EventSink() {
+
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+
+            @Override
+            public void log(String template) {
+                System.out.println(template);
+            }
+
+            @Override
+            public void log(String template, Object arg) {
+                System.out.println(Templates.format(new StringBuilder(), template, arg, null, 1));
+            }
+
+            @Override
+            public void log(String template, long arg) {
+                System.out.println(Templates.format(new StringBuilder(), template, arg));
+            }
+
+            @Override
+            public void log(String template, Object arg1, Object arg2) {
+                System.out.println(Templates.format(new StringBuilder(), template, arg1, arg2, 2));
+            }
+        };
+    }
+
+    // Sink asíncrono sobre un ring buffer preasignado que escribe en System.out desde un hilo propio.
+    public static RingBufferEventSink ringBuffer(int capacity) {
+        return ringBuffer(capacity, System.out);
+    }
+
+    public static RingBufferEventSink ringBuffer(int capacity, PrintStream out) {
+        return new RingBufferEventSink(capacity, out);
+    }
+
+}
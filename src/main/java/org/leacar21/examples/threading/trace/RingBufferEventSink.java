@@ -0,0 +1,191 @@
+package org.leacar21.examples.threading.trace;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.leacar21.examples.threading.executors.NamedThreadFactory;
+
+// EventSink asíncrono: los hilos de las etapas solo copian la plantilla y las referencias de los parámetros en un
+// evento preasignado del ring buffer; un único hilo consumidor arma el texto y lo escribe en el PrintStream.
+//
+// - Los productores nunca se bloquean: reservan una posición con un CAS y, si el buffer está lleno, descartan el evento
+//   (se cuentan en getDroppedCount).
+// - No hay alocación por evento en el productor: los eventos se reutilizan y la plantilla no se formatea en su hilo.
+// - Los parámetros se guardan por referencia, por lo que deben ser inmutables (String, números, etc.).
+public class RingBufferEventSink implements EventSink, AutoCloseable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final int KIND_NO_ARGS = 0;
+    private static final int KIND_OBJECT_ARGS = 1;
+    private static final int KIND_LONG_ARG = 2;
+
+    // Evento preasignado. 'published' es la secuencia del último evento escrito en esta posición: el consumidor sabe que
+    // los campos son visibles cuando coincide con la secuencia que espera leer.
+    private static final class Event {
+        volatile long published = -1;
+        String template;
+        Object arg1;
+        Object arg2;
+        long longArg;
+        int kind;
+        int argCount;
+        String threadName;
+    }
+
+    private final Event[] events;
+    private final int mask;
+    private final PrintStream out;
+
+    // Próxima secuencia a reservar por los productores
+    private final AtomicLong claimed = new AtomicLong();
+    // Próxima secuencia a consumir; solo la escribe el hilo consumidor
+    private volatile long consumed;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    public RingBufferEventSink(int capacity, PrintStream out) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.events = new Event[size];
+        for (int i = 0; i < size; i++) {
+            this.events[i] = new Event();
+        }
+        this.mask = size - 1;
+        this.out = out;
+        this.consumer = new NamedThreadFactory("event-sink", true).newThread(this::consume);
+        this.consumer.start();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.running;
+    }
+
+    @Override
+    public void log(String template) {
+        long seq = this.claim();
+        if (seq >= 0) {
+            this.publish(seq, template, null, null, 0, KIND_NO_ARGS, 0);
+        }
+    }
+
+    @Override
+    public void log(String template, Object arg) {
+        long seq = this.claim();
+        if (seq >= 0) {
+            this.publish(seq, template, arg, null, 0, KIND_OBJECT_ARGS, 1);
+        }
+    }
+
+    @Override
+    public void log(String template, long arg) {
+        long seq = this.claim();
+        if (seq >= 0) {
+            this.publish(seq, template, null, null, arg, KIND_LONG_ARG, 1);
+        }
+    }
+
+    @Override
+    public void log(String template, Object arg1, Object arg2) {
+        long seq = this.claim();
+        if (seq >= 0) {
+            this.publish(seq, template, arg1, arg2, 0, KIND_OBJECT_ARGS, 2);
+        }
+    }
+
+    // Cantidad de eventos descartados por buffer lleno
+    public long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+    public int getCapacity() {
+        return this.events.length;
+    }
+
+    // Espera (sin bloquear a los productores) a que el consumidor escriba todos los eventos publicados hasta ahora.
+    public void flush() {
+        long target = this.claimed.get();
+        while (this.consumed < target && this.consumer.isAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        this.out.flush();
+    }
+
+    // Deja de aceptar eventos, escribe los pendientes y termina el hilo consumidor.
+    @Override
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.consumer);
+        try {
+            this.consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.out.flush();
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private long claim() {
+        if (!this.running) {
+            return -1;
+        }
+        long seq;
+        do {
+            seq = this.claimed.get();
+            if (seq - this.consumed >= this.events.length) {
+                this.dropped.incrementAndGet();
+                return -1;
+            }
+        } while (!this.claimed.compareAndSet(seq, seq + 1));
+        return seq;
+    }
+
+    private void publish(long seq, String template, Object arg1, Object arg2, long longArg, int kind, int argCount) {
+        Event event = this.events[(int) (seq & this.mask)];
+        event.template = template;
+        event.arg1 = arg1;
+        event.arg2 = arg2;
+        event.longArg = longArg;
+        event.kind = kind;
+        event.argCount = argCount;
+        event.threadName = Thread.currentThread().getName();
+        event.published = seq;
+    }
+
+    private void consume() {
+        StringBuilder line = new StringBuilder(256);
+        while (this.running || this.consumed < this.claimed.get()) {
+            long seq = this.consumed;
+            Event event = this.events[(int) (seq & this.mask)];
+            if (event.published != seq) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            line.setLength(0);
+            line.append('[').append(event.threadName).append("] ");
+            switch (event.kind) {
+                case KIND_LONG_ARG:
+                    Templates.format(line, event.template, event.longArg);
+                    break;
+                case KIND_OBJECT_ARGS:
+                    Templates.format(line, event.template, event.arg1, event.arg2, event.argCount);
+                    break;
+                default:
+                    line.append(event.template);
+                    break;
+            }
+            this.out.println(line);
+            event.template = null;
+            event.arg1 = null;
+            event.arg2 = null;
+            event.threadName = null;
+            this.consumed = seq + 1;
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package org.leacar21.examples.threading.trace;
+
+// Reemplazo de los marcadores '{}' de las plantillas de EventSink.
+final class Templates {
+
+    private static final String PLACEHOLDER = "{}";
+
+    private Templates() {
+    }
+
+    static StringBuilder format(StringBuilder out, String template, Object arg1, Object arg2, int argCount) {
+        int from = 0;
+        for (int i = 0; i < argCount; i++) {
+            int at = template.indexOf(PLACEHOLDER, from);
+            if (at < 0) {
+                break;
+            }
+            out.append(template, from, at).append(i == 0 ? arg1 : arg2);
+            from = at + PLACEHOLDER.length();
+        }
+        return out.append(template, from, template.length());
+    }
+
+    static StringBuilder format(StringBuilder out, String template, long arg) {
+        int at = template.indexOf(PLACEHOLDER);
+        if (at < 0) {
+            return out.append(template);
+        }
+        return out.append(template, 0, at).append(arg).append(template, at + PLACEHOLDER.length(), template.length());
+    }
+
+}
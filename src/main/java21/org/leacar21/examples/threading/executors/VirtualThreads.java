@@ -0,0 +1,21 @@
+package org.leacar21.examples.threading.executors;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Versión Java 21+ del multi-release jar (META-INF/versions/21): usa los hilos virtuales directamente.
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return true;
+    }
+
+    // poolSize solo lo usa el fallback de la versión base; acá los hilos virtuales no necesitan límite
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String name, int poolSize) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+    }
+
+}
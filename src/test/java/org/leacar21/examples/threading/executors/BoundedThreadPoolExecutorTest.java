@@ -0,0 +1,126 @@
+package org.leacar21.examples.threading.executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+public class BoundedThreadPoolExecutorTest {
+
+    @Test
+    public void growsToMaxAndFailsFastWhenSaturated() throws Exception {
+        BoundedThreadPoolExecutor pool = BoundedExecutors.newBoundedExecutor("test-pool", 1, 2, 1, RejectionPolicy.FAIL_FAST);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            pool.execute(() -> await(release)); // core
+            pool.execute(() -> await(release)); // cola
+            pool.execute(() -> await(release)); // hilo extra hasta max
+            assertEquals(2, pool.getPoolSize());
+            assertEquals(1, pool.getQueueDepth());
+
+            try {
+                pool.execute(() -> await(release));
+                fail("Se esperaba ExecutorSaturatedException");
+            } catch (ExecutorSaturatedException e) {
+                assertEquals("test-pool", e.getPoolName());
+            }
+            assertEquals(1, pool.getRejectedCount());
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void callerRunsExecutesOnSubmittingThread() throws Exception {
+        BoundedThreadPoolExecutor pool = BoundedExecutors.newBoundedExecutor("test-pool", 1, 1, 1, RejectionPolicy.CALLER_RUNS);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            pool.execute(() -> await(release));
+            pool.execute(() -> await(release));
+            Thread[] runner = new Thread[1];
+            pool.execute(() -> runner[0] = Thread.currentThread());
+            assertEquals(Thread.currentThread(), runner[0]);
+            assertEquals(1, pool.getRejectedCount());
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void dropOldestCancelsTheDroppedFuture() throws Exception {
+        BoundedThreadPoolExecutor pool = BoundedExecutors.newBoundedExecutor("test-pool", 1, 1, 1, RejectionPolicy.DROP_OLDEST);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            pool.execute(() -> await(release));
+            Future<String> oldest = pool.submit(() -> "vieja");
+            Future<String> newest = pool.submit(() -> "nueva");
+
+            assertTrue(oldest.isCancelled());
+            assertFalse(newest.isDone());
+            assertEquals(1, pool.getRejectedCount());
+            release.countDown();
+            assertEquals("nueva", newest.get());
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void dropOldestLeavesADroppedStagePendingForever() throws Exception {
+        BoundedThreadPoolExecutor pool = BoundedExecutors.newBoundedExecutor("test-pool", 1, 1, 1, RejectionPolicy.DROP_OLDEST);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            pool.execute(() -> await(release));
+            CompletableFuture<String> oldest = CompletableFuture.supplyAsync(() -> "vieja", pool);
+            CompletableFuture<String> newest = CompletableFuture.supplyAsync(() -> "nueva", pool);
+            release.countDown();
+
+            assertEquals("nueva", newest.get(1, TimeUnit.SECONDS));
+            // La etapa descartada no se completa nunca: ni con valor, ni con error, ni cancelada
+            try {
+                oldest.get(200, TimeUnit.MILLISECONDS);
+                fail("La etapa descartada no debía completarse");
+            } catch (TimeoutException e) {
+                assertFalse(oldest.isDone());
+            }
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void failFastAfterShutdownIsAPlainRejection() {
+        BoundedThreadPoolExecutor pool = BoundedExecutors.newBoundedExecutor("test-pool", 1, 1, 1, RejectionPolicy.FAIL_FAST);
+        pool.shutdown();
+        try {
+            pool.execute(() -> {});
+            fail("Se esperaba RejectedExecutionException");
+        } catch (ExecutorSaturatedException e) {
+            fail("Un pool apagado no está saturado");
+        } catch (RejectedExecutionException e) {
+            assertEquals(0, pool.getRejectedCount());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package org.leacar21.examples.threading.executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class StageExecutorsTest {
+
+    @CpuBound
+    static final class ToUpperCase implements Function<String, String> {
+        @Override
+        public String apply(String s) {
+            return s.toUpperCase();
+        }
+    }
+
+    @Blocking
+    static final class Identity implements Function<String, String> {
+        @Override
+        public String apply(String s) {
+            return s;
+        }
+    }
+
+    @CpuBound
+    @Blocking
+    static final class Ambiguous implements Function<String, String> {
+        @Override
+        public String apply(String s) {
+            return s;
+        }
+    }
+
+    private final ExecutorService io = Executors.newSingleThreadExecutor(new NamedThreadFactory("test-io", true));
+    private final StageExecutors stages = new StageExecutors(this.io, 2);
+
+    @After
+    public void tearDown() {
+        this.stages.shutdown();
+        this.io.shutdownNow();
+    }
+
+    @Test
+    public void cpuStageRunsInlineWhenSourceAlreadyFinished() {
+        Thread[] runner = new Thread[1];
+        String result = this.stages.thenApply(CompletableFuture.completedFuture("a"), StageKind.CPU, s ->
+            {
+                runner[0] = Thread.currentThread();
+                return s.toUpperCase();
+            }).join();
+        assertEquals("A", result);
+        assertEquals(Thread.currentThread(), runner[0]);
+    }
+
+    @Test
+    public void stagesAreRoutedByKind() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> cpu = this.stages.thenApply(pending, StageKind.CPU, s -> Thread.currentThread().getName());
+        CompletableFuture<String> blocking = this.stages.thenApply(pending, StageKind.BLOCKING, s -> Thread.currentThread().getName());
+        pending.complete("a");
+        assertTrue(cpu.join().startsWith("stage-cpu"));
+        assertTrue(blocking.join().startsWith("test-io"));
+    }
+
+    @Test
+    public void annotatedFunctionsChooseTheirKind() {
+        assertEquals(StageKind.CPU, StageExecutors.kindOf(new ToUpperCase()));
+        assertEquals(StageKind.BLOCKING, StageExecutors.kindOf(new Identity()));
+        assertEquals(StageKind.BLOCKING, StageExecutors.kindOf(new Ambiguous()));
+        assertEquals(StageKind.BLOCKING, StageExecutors.kindOf((Function<String, String>) s -> s));
+    }
+
+}
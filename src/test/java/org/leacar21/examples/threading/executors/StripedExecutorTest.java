@@ -0,0 +1,117 @@
+package org.leacar21.examples.threading.executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class StripedExecutorTest {
+
+    private final StripedExecutor executor = new StripedExecutor("striped-test", 4);
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void runsEverySubmittedTask() throws Exception {
+        int count = 10_000;
+        CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            this.executor.execute(done::countDown);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void keyAffinityKeepsOrderAndThread() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        CompletableFuture<Integer> chain = CompletableFuture.completedFuture(0);
+        for (int i = 0; i < 200; i++) {
+            int step = i;
+            this.executor.execute("pedido-1", () ->
+                {
+                    order.add(step);
+                    threads.add(Thread.currentThread().getName());
+                });
+            chain = chain.thenApplyAsync(v -> v + 1, this.executor.forKey("pedido-2"));
+        }
+
+        assertEquals(200, chain.join().intValue());
+        this.executor.shutdown();
+        assertTrue(this.executor.awaitTermination(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, order.get(i).intValue());
+        }
+        assertEquals(1, threads.size());
+    }
+
+    @Test
+    public void idleWorkersStealFromALoadedQueue() throws Exception {
+        int count = 40;
+        CountDownLatch done = new CountDownLatch(count);
+        Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        // Todas las tareas se encolan desde un worker, por lo que van a su propia cola
+        this.executor.execute(() ->
+            {
+                for (int i = 0; i < count; i++) {
+                    this.executor.execute(() ->
+                        {
+                            threads.add(Thread.currentThread().getName());
+                            sleepMillis(5);
+                            done.countDown();
+                        });
+                }
+            });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(this.executor.getStealCount() > 0);
+        assertTrue(threads.size() > 1);
+    }
+
+    @Test
+    public void shutdownRunsPendingTasksAndRejectsNewOnes() throws Exception {
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            this.executor.execute(() ->
+                {
+                    sleepMillis(1);
+                    ran.incrementAndGet();
+                });
+        }
+        this.executor.shutdown();
+
+        try {
+            this.executor.execute(ran::incrementAndGet);
+            fail("Se esperaba RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            // esperado
+        }
+        assertTrue(this.executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(100, ran.get());
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package org.leacar21.examples.threading.futures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.security.ProviderException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class AsyncLoadingCacheTest {
+
+    @Test
+    public void concurrentCallersShareOneInFlightLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        AsyncLoadingCache<Integer, String> cache = new AsyncLoadingCache<>(key ->
+            {
+                loads.incrementAndGet();
+                return pending;
+            } , 10, 0, 0, TimeUnit.SECONDS);
+
+        CompletableFuture<String> first = cache.get(1);
+        CompletableFuture<String> second = cache.get(1);
+        pending.complete("uno");
+
+        assertEquals("uno", first.join());
+        assertEquals("uno", second.join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void cancellingOneCallerDoesNotBreakTheKey() {
+        AtomicInteger loads = new AtomicInteger();
+        List<CompletableFuture<String>> pending = new ArrayList<>();
+        AsyncLoadingCache<Integer, String> cache = new AsyncLoadingCache<>(key ->
+            {
+                loads.incrementAndGet();
+                CompletableFuture<String> future = new CompletableFuture<>();
+                pending.add(future);
+                return future;
+            } , 10, 0, 0, TimeUnit.SECONDS);
+
+        CompletableFuture<String> impatient = cache.get(1);
+        CompletableFuture<String> patient = cache.get(1);
+        // Un llamador que vence su deadline cancela solo su copia
+        impatient.cancel(true);
+        pending.get(0).complete("uno");
+        assertTrue(impatient.isCancelled());
+        assertEquals("uno", patient.join());
+        assertEquals("uno", cache.get(1).join());
+        assertEquals(1, loads.get());
+
+        // Si lo que se cancela es la carga misma, el siguiente get vuelve a cargar
+        cache.invalidate(1);
+        CompletableFuture<String> cancelled = cache.get(1);
+        pending.get(1).cancel(true);
+        assertTrue(cancelled.isCompletedExceptionally());
+        CompletableFuture<String> reloaded = cache.get(1);
+        assertEquals(3, loads.get());
+        pending.get(2).complete("otra vez");
+        assertEquals("otra vez", reloaded.join());
+    }
+
+    @Test
+    public void failuresAreNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        AsyncLoadingCache<Integer, String> cache = new AsyncLoadingCache<>(key ->
+            {
+                CompletableFuture<String> future = new CompletableFuture<>();
+                if (loads.incrementAndGet() == 1) {
+                    future.completeExceptionally(new ProviderException("Provider Name"));
+                } else {
+                    future.complete("ok");
+                }
+                return future;
+            } , 10, 0, 0, TimeUnit.SECONDS);
+
+        assertTrue(cache.get(1).isCompletedExceptionally());
+        assertEquals("ok", cache.get(1).join());
+        assertEquals(1, cache.getLoadFailureCount());
+    }
+
+    @Test
+    public void expiresAndRefreshesAhead() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        AsyncLoadingCache<Integer, Integer> refreshing = new AsyncLoadingCache<>(key -> CompletableFuture.completedFuture(loads.incrementAndGet()),
+                10, 0, 20, TimeUnit.MILLISECONDS);
+        assertEquals(1, (int) refreshing.get(1).join());
+        Thread.sleep(30);
+        // Pasado el refresh se sirve el valor anterior y se recarga en segundo plano
+        assertEquals(1, (int) refreshing.get(1).join());
+        assertEquals(2, (int) refreshing.get(1).join());
+
+        AsyncLoadingCache<Integer, Integer> expiring = new AsyncLoadingCache<>(key -> CompletableFuture.completedFuture(loads.incrementAndGet()),
+                10, 20, 0, TimeUnit.MILLISECONDS);
+        int loaded = expiring.get(1).join();
+        Thread.sleep(30);
+        assertEquals(loaded + 1, (int) expiring.get(1).join());
+    }
+
+    @Test
+    public void sizeBoundEvictsInfrequentKeysFirst() {
+        AsyncLoadingCache<Integer, Integer> cache = new AsyncLoadingCache<>(CompletableFuture::completedFuture, 4, 0, 0, TimeUnit.SECONDS);
+        // La clave 0 es popular
+        for (int i = 0; i < 20; i++) {
+            cache.get(0);
+        }
+        for (int key = 1; key <= 50; key++) {
+            cache.get(key);
+        }
+        assertTrue(cache.size() <= 4);
+        long misses = cache.getMissCount();
+        cache.get(0);
+        assertEquals(misses, cache.getMissCount());
+    }
+
+    @Test
+    public void failedAndRefreshedEntriesLeaveTheEvictionQueue() throws Exception {
+        AsyncLoadingCache<Integer, Integer> failing = new AsyncLoadingCache<>(key ->
+            {
+                CompletableFuture<Integer> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new ProviderException("Provider Name"));
+                return failed;
+            } , 1000, 0, 0, TimeUnit.SECONDS);
+        for (int i = 0; i < 100_000; i++) {
+            failing.get(i % 10);
+        }
+        assertEquals(0, failing.size());
+        assertEquals(0, failing.queuedCount());
+
+        AtomicInteger loads = new AtomicInteger();
+        AsyncLoadingCache<Integer, Integer> refreshing = new AsyncLoadingCache<>(key -> CompletableFuture.completedFuture(loads.incrementAndGet()),
+                10, 0, 1, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 20; i++) {
+            refreshing.get(1).join();
+            Thread.sleep(2);
+        }
+        assertTrue(refreshing.getRefreshCount() > 0);
+        assertEquals(1, refreshing.queuedCount());
+    }
+
+}
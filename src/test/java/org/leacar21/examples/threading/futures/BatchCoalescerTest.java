@@ -0,0 +1,91 @@
+package org.leacar21.examples.threading.futures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class BatchCoalescerTest {
+
+    private final List<Set<Integer>> calls = new CopyOnWriteArrayList<>();
+
+    private CompletableFuture<Map<Integer, String>> bulk(Set<Integer> keys) {
+        this.calls.add(keys);
+        Map<Integer, String> values = new HashMap<>();
+        for (Integer key : keys) {
+            if (key >= 0) {
+                values.put(key, "v" + key);
+            }
+        }
+        return CompletableFuture.completedFuture(values);
+    }
+
+    @Test
+    public void coalescesCallsWithinTheWindowAndDedupesKeys() {
+        BatchCoalescer<Integer, String> coalescer = new BatchCoalescer<>(this::bulk, 100, 50, TimeUnit.MILLISECONDS);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(coalescer.load(i % 5));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("v" + (i % 5), futures.get(i).join());
+        }
+        assertEquals(1, this.calls.size());
+        assertEquals(5, this.calls.get(0).size());
+        assertEquals(10, coalescer.getRequestCount());
+        assertEquals(1, coalescer.getBatchCount());
+    }
+
+    @Test
+    public void flushesImmediatelyWhenTheBatchIsFull() {
+        // Ventana larga: solo el tamaño puede cerrar los lotes a tiempo
+        BatchCoalescer<Integer, String> coalescer = new BatchCoalescer<>(this::bulk, 3, 10, TimeUnit.SECONDS);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(coalescer.load(i));
+        }
+
+        for (CompletableFuture<String> future : futures) {
+            assertTrue(future.isDone());
+        }
+        assertEquals(2, this.calls.size());
+    }
+
+    @Test
+    public void missingKeysAndBulkFailuresFailTheirCallers() {
+        BatchCoalescer<Integer, String> coalescer = new BatchCoalescer<>(this::bulk, 100, 10, TimeUnit.MILLISECONDS);
+        CompletableFuture<String> found = coalescer.load(1);
+        CompletableFuture<String> missing = coalescer.load(-1);
+        assertEquals("v1", found.join());
+        assertFailsWith(missing, NoSuchElementException.class);
+
+        BatchCoalescer<Integer, String> failing = new BatchCoalescer<>(keys ->
+            {
+                throw new IllegalStateException("proveedor caído");
+            }, 100, 10, TimeUnit.MILLISECONDS);
+        assertFailsWith(failing.load(1), IllegalStateException.class);
+    }
+
+    private static void assertFailsWith(CompletableFuture<?> future, Class<? extends Throwable> type) {
+        try {
+            future.join();
+            fail("Se esperaba " + type.getSimpleName());
+        } catch (CompletionException e) {
+            assertTrue(type.isInstance(e.getCause()));
+        }
+    }
+
+}
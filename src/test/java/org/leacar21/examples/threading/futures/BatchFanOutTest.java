@@ -0,0 +1,112 @@
+package org.leacar21.examples.threading.futures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class BatchFanOutTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void mergesResultsInKeyOrderAndCapsConcurrency() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger partials = new AtomicInteger();
+        int[] keys = { 5, 1, 3, 2 };
+
+        int[] merged = BatchFanOut.loadAll(keys, 2, key ->
+            {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                // Las claves más altas tardan más, para que terminen fuera de orden
+                return Delays.supplyAfter(key * 5, TimeUnit.MILLISECONDS, () ->
+                    {
+                        inFlight.decrementAndGet();
+                        return new int[] { key, key * 10 };
+                    } , this.executor);
+            } , (index, key, values) -> partials.incrementAndGet()).join();
+
+        assertArrayEquals(new int[] { 5, 50, 1, 10, 3, 30, 2, 20 }, merged);
+        assertEquals(4, partials.get());
+        assertTrue(maxInFlight.get() <= 2);
+    }
+
+    @Test
+    public void completedLoadsDoNotGrowTheStack() {
+        int[] keys = new int[100000];
+        int[] merged = BatchFanOut.loadAll(keys, 1, key -> CompletableFuture.completedFuture(new int[] { 1 })).join();
+        assertEquals(keys.length, merged.length);
+    }
+
+    @Test(expected = CompletionException.class)
+    public void failsWhenAnyLoadFails() {
+        BatchFanOut.loadAll(new int[] { 1, 2, 3 }, 3, key ->
+            {
+                CompletableFuture<int[]> future = new CompletableFuture<>();
+                if (key == 2) {
+                    future.completeExceptionally(new IllegalStateException("Error en la clave 2"));
+                } else {
+                    future.complete(new int[] { key });
+                }
+                return future;
+            }).join();
+    }
+
+    @Test
+    public void nullFromTheLoaderFailsTheBatch() throws Exception {
+        CompletableFuture<int[]> nullFuture = BatchFanOut.loadAll(new int[] { 1, 2 }, 2, key -> key == 2 ? null : CompletableFuture.completedFuture(new int[] { key }));
+        CompletableFuture<int[]> nullValue = BatchFanOut.loadAll(new int[] { 1, 2 }, 2, key -> CompletableFuture.completedFuture(key == 2 ? null : new int[] { key }));
+
+        for (CompletableFuture<int[]> result : Arrays.asList(nullFuture, nullValue)) {
+            try {
+                result.get(1, TimeUnit.SECONDS);
+                fail("Se esperaba NullPointerException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof NullPointerException);
+            }
+        }
+    }
+
+    @Test
+    public void throwingListenerFailsTheBatchOnBothPaths() throws Exception {
+        BatchFanOut.PartialResultListener throwing = (index, key, values) ->
+            {
+                throw new IllegalStateException("Error en el listener");
+            };
+
+        // Carga ya completa: el listener corre dentro de loadAll
+        CompletableFuture<int[]> sync = BatchFanOut.loadAll(new int[] { 1, 2 }, 1, key -> CompletableFuture.completedFuture(new int[] { key }), throwing);
+        // Carga pendiente: el listener corre en el callback de la carga
+        CompletableFuture<int[]> async = BatchFanOut.loadAll(new int[] { 1, 2 }, 1,
+                key -> Delays.supplyAfter(5, TimeUnit.MILLISECONDS, () -> new int[] { key }, this.executor), throwing);
+
+        for (CompletableFuture<int[]> result : Arrays.asList(sync, async)) {
+            try {
+                result.get(1, TimeUnit.SECONDS);
+                fail("Se esperaba la falla del listener");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+}
+
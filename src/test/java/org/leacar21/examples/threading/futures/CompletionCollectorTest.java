@@ -0,0 +1,74 @@
+package org.leacar21.examples.threading.futures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class CompletionCollectorTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void deliversInCompletionOrderWithoutWaitingForSlowFirst() {
+        CompletionCollector<String> collector = new CompletionCollector<>();
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        collector.submit(slow);
+        collector.submit(CompletableFuture.completedFuture("fast"));
+
+        List<CompletionCollector.Completion<String>> received = new ArrayList<>();
+        assertEquals(1, collector.await(received::add, 10, 1, TimeUnit.SECONDS));
+        assertEquals("fast", received.get(0).getValue());
+        assertEquals(1, received.get(0).getIndex());
+        assertEquals(1, collector.getPending());
+
+        slow.completeExceptionally(new IllegalStateException("boom"));
+        assertTrue(collector.awaitAll(received::add, 10, 1, TimeUnit.SECONDS));
+        assertFalse(received.get(1).isSuccess());
+        assertTrue(received.get(1).getError() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void collectsEveryResultFromManyProducers() {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            CompletionCollector<Integer> collector = new CompletionCollector<>(strategy);
+            int count = 20_000;
+            for (int i = 0; i < count; i++) {
+                int value = i;
+                collector.submit(CompletableFuture.supplyAsync(() -> value, this.executor));
+            }
+
+            Set<Integer> seen = Collections.synchronizedSet(new HashSet<>());
+            assertTrue(strategy.name(), collector.awaitAll(c -> seen.add(c.getValue()), 256, 10, TimeUnit.SECONDS));
+            assertEquals(strategy.name(), count, seen.size());
+            assertEquals(0, collector.getPending());
+        }
+    }
+
+    @Test
+    public void awaitReturnsZeroOnTimeout() {
+        CompletionCollector<String> collector = new CompletionCollector<>(WaitStrategy.PARK);
+        collector.submit(new CompletableFuture<>());
+
+        assertEquals(0, collector.await(c -> { }, 10, 20, TimeUnit.MILLISECONDS));
+        assertFalse(collector.awaitAll(c -> { }, 10, 20, TimeUnit.MILLISECONDS));
+    }
+
+}
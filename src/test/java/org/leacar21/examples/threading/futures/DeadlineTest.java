@@ -0,0 +1,91 @@
+package org.leacar21.examples.threading.futures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class DeadlineTest {
+
+    @Test
+    public void expiredBindCancelsUpstreamAndSkipsDependentStages() {
+        Deadline deadline = Deadline.after(30, TimeUnit.MILLISECONDS);
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        AtomicBoolean dependentRan = new AtomicBoolean();
+        upstream.thenApply(s ->
+            {
+                dependentRan.set(true);
+                return s;
+            });
+
+        try {
+            deadline.bind(upstream).join();
+            fail("Se esperaba DeadlineExceededException");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof DeadlineExceededException);
+        }
+        assertTrue(upstream.isCancelled());
+        assertFalse(dependentRan.get());
+    }
+
+    @Test
+    public void expiredSupplyAsyncInterruptsTheRunningTask() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Deadline deadline = Deadline.after(30, TimeUnit.MILLISECONDS);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            CompletableFuture<String> bound = deadline.supplyAsync(() ->
+                {
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return "tarde";
+                } , executor);
+
+            try {
+                bound.join();
+                fail("Se esperaba DeadlineExceededException");
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof DeadlineExceededException);
+            }
+            assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void guardedStageFailsFastOnceBudgetIsSpent() throws Exception {
+        Deadline deadline = Deadline.after(10, TimeUnit.MILLISECONDS);
+        Thread.sleep(20);
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<String> stage = CompletableFuture.completedFuture("a").thenApply(deadline.guard(s ->
+            {
+                ran.set(true);
+                return s;
+            }));
+        assertTrue(stage.isCompletedExceptionally());
+        assertFalse(ran.get());
+    }
+
+    @Test
+    public void boundFutureCompletesNormallyWithinBudget() {
+        Deadline deadline = Deadline.after(1, TimeUnit.SECONDS);
+        CompletableFuture<String> composed = CompletableFuture.completedFuture("a")
+                .thenCompose(deadline.guardCompose(s -> Delays.delayMillis(10).thenApply(v -> s + "b")));
+        assertEquals("ab", composed.join());
+    }
+
+}
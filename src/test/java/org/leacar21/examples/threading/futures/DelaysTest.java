@@ -0,0 +1,67 @@
+package org.leacar21.examples.threading.futures;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class DelaysTest {
+
+    @Test
+    public void completesAfterRequestedDelay() {
+        long start = System.nanoTime();
+        Delays.delayMillis(50).join();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void oneTimerThreadServesManyPendingDelays() {
+        CompletableFuture<?>[] delays = new CompletableFuture<?>[10000];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = Delays.delayNanos(TimeUnit.MILLISECONDS.toNanos(20));
+        }
+        CompletableFuture.allOf(delays).join();
+    }
+
+    @Test
+    public void cancellingSupplyAfterSkipsSupplier() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AtomicBoolean ran = new AtomicBoolean();
+            CompletableFuture<String> future = Delays.supplyAfter(50, TimeUnit.MILLISECONDS, () ->
+                {
+                    ran.set(true);
+                    return "valor";
+                } , executor);
+            future.cancel(false);
+            Thread.sleep(100);
+            assertFalse(ran.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void cancellingDelaysRemovesThemFromTheTimer() {
+        // pendingDelays() cuenta las esperas de todo el proceso: se cancelan muchas a la vez y se tolera el ruido de otras
+        CompletableFuture<?>[] delays = new CompletableFuture<?>[1000];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = Delays.delay(1, TimeUnit.HOURS);
+        }
+        int pending = Delays.pendingDelays();
+        assertTrue(pending >= delays.length);
+
+        for (CompletableFuture<?> delay : delays) {
+            delay.cancel(false);
+        }
+
+        assertTrue(Delays.pendingDelays() <= pending - delays.length + 10);
+    }
+
+}
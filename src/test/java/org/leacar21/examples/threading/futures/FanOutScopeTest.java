@@ -0,0 +1,108 @@
+package org.leacar21.examples.threading.futures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class FanOutScopeTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void joinAllKeepsForkOrder() {
+        try (FanOutScope<String> scope = new FanOutScope<>(this.executor)) {
+            scope.fork(() ->
+                {
+                    Thread.sleep(30);
+                    return "a";
+                });
+            scope.fork(() -> "b");
+            assertEquals(Arrays.asList("a", "b"), scope.joinAll().join());
+        }
+    }
+
+    @Test
+    public void firstFailureCancelsAndInterruptsSiblings() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (FanOutScope<String> scope = new FanOutScope<>(this.executor)) {
+            scope.fork(() ->
+                {
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                    return "lento";
+                });
+            scope.fork(() ->
+                {
+                    Thread.sleep(20);
+                    throw new IllegalStateException("Error en el futuro");
+                });
+            try {
+                scope.joinAll().join();
+                fail("Se esperaba CompletionException");
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void quorumReturnsFirstSuccessesAndToleratesFailures() {
+        try (FanOutScope<Integer> scope = new FanOutScope<>(this.executor)) {
+            scope.fork(() ->
+                {
+                    throw new IllegalStateException("Error");
+                });
+            scope.fork(() -> 1);
+            scope.fork(() ->
+                {
+                    Thread.sleep(20);
+                    return 2;
+                });
+            scope.fork(() ->
+                {
+                    Thread.sleep(10000);
+                    return 3;
+                });
+            List<Integer> quorum = scope.joinQuorum(2).join();
+            assertEquals(Arrays.asList(1, 2), quorum);
+        }
+    }
+
+    @Test
+    public void rejectedForkDoesNotBlockJoinAll() throws Exception {
+        ExecutorService rejecting = Executors.newSingleThreadExecutor();
+        rejecting.shutdown();
+        try (FanOutScope<String> scope = new FanOutScope<>(rejecting)) {
+            try {
+                scope.fork(() -> "rechazada");
+                fail("el fork sobre un executor apagado debía fallar");
+            } catch (RejectedExecutionException e) {
+                // esperado
+            }
+            assertTrue(scope.joinAll().get(1, TimeUnit.SECONDS).isEmpty());
+        }
+    }
+
+}
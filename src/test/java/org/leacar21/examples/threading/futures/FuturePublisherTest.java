@@ -0,0 +1,172 @@
+package org.leacar21.examples.threading.futures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+public class FuturePublisherTest {
+
+    @Test
+    public void emitsInSourceOrderWhenOrdered() throws Exception {
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+        // Las claves más altas tardan más, para que terminen fuera de orden
+        new FuturePublisher<>(delayedSources(new AtomicInteger(), new AtomicInteger(), 30, 10, 20, 0), 4, true).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(30, 10, 20, 0), subscriber.values);
+        assertEquals(null, subscriber.error.get());
+    }
+
+    @Test
+    public void emitsInCompletionOrderWhenUnordered() throws Exception {
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+        new FuturePublisher<>(delayedSources(new AtomicInteger(), new AtomicInteger(), 60, 0, 30), 3, false).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(0, 30, 60), subscriber.values);
+    }
+
+    @Test
+    public void launchesOnlyWhatWasRequested() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger launched = new AtomicInteger();
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(0);
+        new FuturePublisher<>(delayedSources(inFlight, launched, 5, 5, 5, 5, 5, 5), 4, true).subscribe(subscriber);
+
+        Thread.sleep(50);
+        assertEquals(0, launched.get());
+
+        subscriber.subscription.request(2);
+        Thread.sleep(100);
+        assertEquals(2, launched.get());
+        assertEquals(2, subscriber.values.size());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertEquals(6, subscriber.values.size());
+        assertEquals(6, launched.get());
+    }
+
+    @Test
+    public void failsAndStopsOnProducerError() throws Exception {
+        AtomicInteger launched = new AtomicInteger();
+        List<Supplier<CompletableFuture<Integer>>> sources = new ArrayList<>();
+        sources.add(() -> CompletableFuture.completedFuture(1));
+        sources.add(() ->
+            {
+                CompletableFuture<Integer> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IllegalStateException("boom"));
+                return failed;
+            });
+        sources.add(() -> CompletableFuture.completedFuture(launched.incrementAndGet()));
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+        new FuturePublisher<>(sources, 1, true).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        // El error corta la emisión: el valor ya recibido puede o no haberse emitido, pero no se lanza nada más
+        assertTrue(subscriber.values.size() <= 1);
+        assertTrue(subscriber.error.get() instanceof IllegalStateException);
+        assertEquals(0, launched.get());
+    }
+
+    @Test
+    public void supplierThatThrowsSignalsErrorWhenRequestedLater() throws Exception {
+        List<Supplier<CompletableFuture<Integer>>> sources = new ArrayList<>();
+        sources.add(() ->
+            {
+                throw new IllegalStateException("boom");
+            });
+        sources.add(() -> CompletableFuture.completedFuture(1));
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(0);
+        new FuturePublisher<>(sources, 2, false).subscribe(subscriber);
+
+        // request fuera de onSubscribe, sin ningún otro productor en vuelo que vuelva a llamar a drain
+        subscriber.subscription.request(10);
+
+        assertTrue(subscriber.done.await(1, TimeUnit.SECONDS));
+        assertTrue(subscriber.error.get() instanceof IllegalStateException);
+        assertTrue(subscriber.values.isEmpty());
+    }
+
+    @Test
+    public void supplierThatReturnsNullSignalsError() throws Exception {
+        List<Supplier<CompletableFuture<Integer>>> sources = new ArrayList<>();
+        sources.add(() -> null);
+        sources.add(() -> CompletableFuture.completedFuture(1));
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(10);
+        new FuturePublisher<>(sources, 2, true).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(1, TimeUnit.SECONDS));
+        assertTrue(subscriber.error.get() instanceof NullPointerException);
+        assertTrue(subscriber.values.isEmpty());
+    }
+
+    private static List<Supplier<CompletableFuture<Integer>>> delayedSources(AtomicInteger inFlight, AtomicInteger launched, int... delays) {
+        List<Supplier<CompletableFuture<Integer>>> sources = new ArrayList<>();
+        for (int delay : delays) {
+            sources.add(() ->
+                {
+                    launched.incrementAndGet();
+                    inFlight.incrementAndGet();
+                    return Delays.delayMillis(delay).thenApply(ignored ->
+                        {
+                            inFlight.decrementAndGet();
+                            return delay;
+                        });
+                });
+        }
+        return sources;
+    }
+
+    private static final class RecordingSubscriber<T> implements Subscriber<T> {
+
+        final List<T> values = Collections.synchronizedList(new ArrayList<>());
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final long initialRequest;
+        volatile Subscription subscription;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            if (this.initialRequest > 0) {
+                subscription.request(this.initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(T value) {
+            this.values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            this.error.set(e);
+            this.done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            this.done.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.leacar21.examples.threading.futures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class FutureTrackerTest {
+
+    @Test
+    public void drainWaitsForPendingAndReportsAbandoned() {
+        FutureTracker tracker = new FutureTracker();
+        tracker.track("rapido", Delays.delayMillis(20));
+        CompletableFuture<Void> stuck = tracker.track("colgado", new CompletableFuture<>());
+        assertEquals(2, tracker.pendingCount());
+
+        DrainReport report = tracker.drain(200, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, report.getCompleted());
+        assertEquals(Collections.singletonList("colgado"), report.getAbandoned());
+        assertTrue(stuck.isCancelled());
+        assertEquals(0, tracker.pendingCount());
+    }
+
+    @Test
+    public void completedFuturesLeaveTheTracker() {
+        FutureTracker tracker = new FutureTracker();
+        tracker.track("listo", CompletableFuture.completedFuture("a"));
+        assertEquals(0, tracker.pendingCount());
+        assertTrue(tracker.drain(1, TimeUnit.SECONDS).isClean());
+    }
+
+}
@@ -0,0 +1,112 @@
+package org.leacar21.examples.threading.futures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class LazyFutureTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void runsOnlyWhenFirstNeededAndOnlyOnce() {
+        AtomicInteger runs = new AtomicInteger();
+        LazyFuture<Integer> lazy = LazyFuture.supplyAsync(runs::incrementAndGet, this.executor);
+
+        assertFalse(lazy.isStarted());
+        assertFalse(lazy.isDone());
+        assertEquals(0, runs.get());
+
+        CompletableFuture<Integer> doubled = lazy.thenApply(v -> v * 2);
+        assertTrue(lazy.isStarted());
+        assertEquals(2, doubled.join().intValue());
+        assertEquals(1, lazy.join().intValue());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void unusedBranchNeverRuns() {
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<String> primary = CompletableFuture.completedFuture("principal");
+        LazyFuture<String> fallback = LazyFuture.supplyAsync(() ->
+            {
+                runs.incrementAndGet();
+                return "alternativa";
+            }, this.executor);
+
+        // La alternativa solo se materializa si la principal falla
+        String result = primary.handle((ok, ex) -> ex == null ? ok : fallback.join()).join();
+
+        assertEquals("principal", result);
+        assertEquals(0, runs.get());
+        assertFalse(fallback.isStarted());
+    }
+
+    @Test
+    public void cancelBeforeStartPreventsTheWork() {
+        AtomicInteger runs = new AtomicInteger();
+        LazyFuture<Void> lazy = LazyFuture.runAsync(runs::incrementAndGet, this.executor);
+
+        assertTrue(lazy.cancel(false));
+        assertTrue(lazy.isCancelled());
+        assertTrue(lazy.materialize().isCompletedExceptionally());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void cancelAfterStartCancelsTheProducer() {
+        CompletableFuture<String> source = new CompletableFuture<>();
+        LazyFuture<String> lazy = LazyFuture.defer(() -> source);
+
+        lazy.materialize();
+        lazy.cancel(true);
+
+        assertTrue(source.isCancelled());
+    }
+
+    @Test
+    public void materializedCopiesCannotChangeTheResult() {
+        CompletableFuture<String> source = new CompletableFuture<>();
+        LazyFuture<String> lazy = LazyFuture.defer(() -> source);
+
+        lazy.materialize().complete("intruso");
+        lazy.toCompletableFuture().obtrudeValue("intruso");
+        source.complete("real");
+
+        assertEquals("real", lazy.join());
+        assertEquals("real", lazy.materialize().join());
+    }
+
+    @Test
+    public void propagatesProducerFailure() throws Exception {
+        LazyFuture<String> lazy = LazyFuture.defer(() -> Delays.supplyAfter(1, TimeUnit.MILLISECONDS, () ->
+            {
+                throw new IllegalStateException("boom");
+            }, this.executor));
+
+        try {
+            lazy.join();
+            fail("Se esperaba el error del productor");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertTrue(lazy.toCompletableFuture().isCompletedExceptionally());
+    }
+
+}
@@ -0,0 +1,151 @@
+package org.leacar21.examples.threading.futures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.leacar21.examples.threading.executors.StageKind;
+
+public class PipelineTest {
+
+    @Test
+    public void fusesAllStagesIntoOneDispatch() {
+        AtomicInteger dispatches = new AtomicInteger();
+        Executor counting = task ->
+            {
+                dispatches.incrementAndGet();
+                task.run();
+            };
+
+        String result = Pipeline.supply(() -> 1).map(i -> i + 1).map(i -> i * 10).map(String::valueOf).whenComplete((s, e) ->
+            {
+            }).runAsync(counting).join();
+
+        assertEquals("20", result);
+        assertEquals(1, dispatches.get());
+    }
+
+    @Test
+    public void errorSemanticsMatchCompletableFuture() {
+        IllegalStateException failure = new IllegalStateException("Error en el futuro");
+
+        CompletableFuture<Object> expected = CompletableFuture.supplyAsync(() ->
+            {
+                throw failure;
+            }, Runnable::run).thenApply(o -> "no se ejecuta").handle((ok, ex) -> ex);
+        Object actual = Pipeline.supply(() ->
+            {
+                throw failure;
+            }).map(o -> "no se ejecuta").handle((ok, ex) -> ex).run().join();
+
+        assertEquals(expected.join().getClass(), actual.getClass());
+        assertTrue(actual instanceof CompletionException);
+        assertEquals(failure, ((Throwable) actual).getCause());
+    }
+
+    @Test
+    public void exceptionallyRecoversAndWhenCompleteKeepsOriginalError() {
+        assertEquals("StringPorDefecto1", Pipeline.supply(() ->
+            {
+                throw new RuntimeException("Error en el futuro 1");
+            }).exceptionally(e -> "StringPorDefecto1").run().join());
+
+        CompletableFuture<Object> failed = Pipeline.supply(() ->
+            {
+                throw new IllegalStateException("original");
+            }).whenComplete((v, e) ->
+                {
+                    throw new IllegalArgumentException("del callback");
+                }).run();
+        try {
+            failed.join();
+            fail("Se esperaba CompletionException");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void continuesFromSourceAndPropagatesCancellation() {
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> result = Pipeline.from(source).map(String::toUpperCase).run();
+        result.cancel(false);
+        assertTrue(source.isCancelled());
+
+        CompletableFuture<String> other = new CompletableFuture<>();
+        CompletableFuture<String> upper = Pipeline.from(other).map(String::toUpperCase).run();
+        other.complete("terminado");
+        assertEquals("TERMINADO", upper.join());
+    }
+
+    @Test
+    public void continuationPolicyDecidesWhereCallbacksRun() {
+        AtomicInteger dispatches = new AtomicInteger();
+        Executor counting = task ->
+            {
+                dispatches.incrementAndGet();
+                task.run();
+            };
+
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> inline = Pipeline.from(source).map(String::toUpperCase).run(counting, ContinuationPolicy.INLINE);
+        CompletableFuture<String> async = Pipeline.from(source).map(String::toUpperCase).run(counting, ContinuationPolicy.ASYNC);
+        CompletableFuture<String> adaptive = Pipeline.from(source).map(String::toUpperCase).run(counting, ContinuationPolicy.ADAPTIVE);
+        CompletableFuture<String> blocking = Pipeline.from(source).map(String::toUpperCase).kind(StageKind.BLOCKING)
+                .run(counting, ContinuationPolicy.ADAPTIVE);
+        source.complete("ok");
+
+        assertEquals("OK", inline.join());
+        assertEquals("OK", async.join());
+        assertEquals("OK", adaptive.join());
+        assertEquals("OK", blocking.join());
+        // Solo ASYNC y la etapa BLOCKING pasan por el executor
+        assertEquals(2, dispatches.get());
+    }
+
+    @Test
+    public void inlineChainsDoNotGrowTheStack() {
+        CompletableFuture<Integer> root = new CompletableFuture<>();
+        CompletableFuture<Integer> last = root;
+        for (int i = 0; i < 100_000; i++) {
+            last = Pipeline.from(last).map(v -> v + 1).run(Runnable::run, ContinuationPolicy.INLINE);
+        }
+        root.complete(0);
+
+        assertEquals(100_000, last.join().intValue());
+    }
+
+    @Test
+    public void trampolineKeepsDrainingAfterAnError() {
+        AssertionError boom = new AssertionError("boom");
+        AtomicInteger ran = new AtomicInteger();
+        Trampoline trampoline = Trampoline.get();
+        try {
+            trampoline.execute(() ->
+            {
+                trampoline.execute(() ->
+                {
+                    throw boom;
+                });
+                trampoline.execute(ran::incrementAndGet);
+            });
+            fail("el Error de la tarea encolada debía relanzarse");
+        } catch (AssertionError e) {
+            assertSame(boom, e);
+        }
+
+        assertEquals(1, ran.get());
+        assertEquals(0, Trampoline.pending());
+        // El hilo no queda marcado como drenando: la siguiente tarea corre en el acto
+        trampoline.execute(ran::incrementAndGet);
+        assertEquals(2, ran.get());
+    }
+
+}
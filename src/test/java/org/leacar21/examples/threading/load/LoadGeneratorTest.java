@@ -0,0 +1,44 @@
+package org.leacar21.examples.threading.load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.leacar21.examples.threading.executors.BoundedExecutors;
+import org.leacar21.examples.threading.executors.ExecutionMode;
+import org.leacar21.examples.threading.executors.RejectionPolicy;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void sendsEveryRequestOfTheProfile() {
+        LoadProfile profile = new LoadProfile(100, 300, 3, 5, 5);
+        LoadReport report = LoadGenerator.run(ExecutionMode.FIXED_POOL, 16, LoadScenario.FAN_OUT, profile);
+
+        assertEquals(30, report.getRequests());
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getLatency().getP50() >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(report.getLargestPoolSize() <= 16);
+    }
+
+    @Test
+    public void latencyIncludesTheDelayOfABlockedGenerator() {
+        // Con CALLER_RUNS el propio generador ejecuta etapas y se atrasa: el tiempo de servicio no ve ese atraso, la
+        // latencia medida desde el instante planeado sí
+        ExecutorService executor = BoundedExecutors.newBoundedExecutor("load-test", 1, 1, 1, RejectionPolicy.CALLER_RUNS);
+        try {
+            LoadProfile profile = new LoadProfile(200, 250, 1, 20);
+            LoadReport report = LoadGenerator.run("bounded", LoadScenario.CHAIN, profile, executor);
+
+            assertEquals(50, report.getRequests());
+            assertTrue(report.getMaxDispatchLagNanos() > TimeUnit.MILLISECONDS.toNanos(100));
+            assertTrue(report.getLatency().getP99() > report.getServiceTime().getP99());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.leacar21.examples.threading.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class StageMetricsTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void histogramPercentilesStayWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for (long i = 1; i <= 10000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(10000, histogram.getCount());
+        assertEquals(5_000_000, histogram.getValueAtPercentile(50), 5_000_000 * 0.04);
+        assertEquals(9_900_000, histogram.getValueAtPercentile(99), 9_900_000 * 0.04);
+        assertEquals(10_000_000, histogram.getMax());
+    }
+
+    @Test
+    public void separatesQueueWaitFromExecution() throws Exception {
+        StageMetrics metrics = new StageMetrics();
+        CountDownLatch release = new CountDownLatch(1);
+        // Ocupa el único hilo para que la etapa medida espere en cola
+        this.executor.execute(() -> await(release));
+
+        CompletableFuture<String> stage = CompletableFuture.supplyAsync(() -> "a", metrics.instrument("etapa", this.executor));
+        Thread.sleep(50);
+        release.countDown();
+        stage.get(1, TimeUnit.SECONDS);
+
+        StageRecorder recorder = metrics.stage("etapa");
+        assertEquals(1, recorder.getQueueWait().getCount());
+        assertTrue(recorder.getQueueWait().getMax() >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertTrue(recorder.getExecution().getMax() < recorder.getQueueWait().getMax());
+    }
+
+    @Test
+    public void exposesStagesThroughJmx() throws Exception {
+        StageMetrics metrics = new StageMetrics("org.leacar21.examples.test");
+        try {
+            CompletableFuture<String> source = CompletableFuture.completedFuture("a");
+            metrics.onComplete("callback", source, (s, e) ->
+                {
+                } , this.executor).get(1, TimeUnit.SECONDS);
+
+            ObjectName name = new ObjectName("org.leacar21.examples.test:type=StageMetrics,stage=" + ObjectName.quote("callback"));
+            CompositeData delay = (CompositeData) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CallbackDelay");
+            assertEquals(1L, delay.get("count"));
+        } finally {
+            metrics.unregisterAll();
+        }
+    }
+
+    @Test
+    public void snapshotIsAnImmutableCopy() {
+        StageMetrics metrics = new StageMetrics();
+        metrics.stage("etapa").recordExecution(1000);
+
+        Map<String, StageSnapshot> snapshot = metrics.snapshot();
+        metrics.stage("etapa").recordExecution(2000);
+        metrics.stage("otra").recordExecution(3000);
+
+        assertEquals(1, snapshot.size());
+        assertEquals(1, snapshot.get("etapa").getExecution().getCount());
+        assertEquals(2, metrics.snapshot().get("etapa").getExecution().getCount());
+        try {
+            snapshot.clear();
+            fail("La foto no debía poder modificarse");
+        } catch (UnsupportedOperationException e) {
+            // esperado
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
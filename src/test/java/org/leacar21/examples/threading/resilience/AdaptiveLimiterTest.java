@@ -0,0 +1,98 @@
+package org.leacar21.examples.threading.resilience;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.leacar21.examples.threading.futures.Delays;
+
+public class AdaptiveLimiterTest {
+
+    @Test
+    public void rejectsFastWhenLimitAndQueueAreFull() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1, 2.0, 1, 1, TimeUnit.SECONDS);
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+        CompletableFuture<String> running = limiter.submit(() -> blocker);
+        CompletableFuture<String> waiting = limiter.submit(() -> CompletableFuture.completedFuture("en cola"));
+        CompletableFuture<String> rejected = limiter.submit(() -> CompletableFuture.completedFuture("rechazado"));
+
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(1, limiter.getQueued());
+        try {
+            rejected.join();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof LimitExceededException);
+        }
+        assertTrue(rejected.isCompletedExceptionally());
+
+        blocker.complete("listo");
+        assertEquals("listo", running.join());
+        assertEquals("en cola", waiting.join());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void rejectQueuedFailsWaitersButNotInFlightCalls() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1, 2.0, 10, 10, TimeUnit.SECONDS);
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+        CompletableFuture<String> running = limiter.submit(() -> blocker);
+        CompletableFuture<String> waiting = limiter.submit(() -> CompletableFuture.completedFuture("en cola"));
+
+        assertEquals(1, limiter.rejectQueued());
+        assertEquals(0, limiter.getQueued());
+        try {
+            waiting.join();
+            fail("Se esperaba LimitExceededException");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof LimitExceededException);
+        }
+        blocker.complete("listo");
+        assertEquals("listo", running.join());
+    }
+
+    @Test
+    public void queuedRequestFailsWhenWaitExpires() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1, 2.0, 10, 20, TimeUnit.MILLISECONDS);
+        limiter.submit(CompletableFuture::new);
+        CompletableFuture<String> waiting = limiter.submit(() -> CompletableFuture.completedFuture("en cola"));
+        try {
+            waiting.join();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof LimitExceededException);
+        }
+        assertTrue(waiting.isCompletedExceptionally());
+    }
+
+    @Test
+    public void limitGrowsWhileUsedWithStableLatencyAndShrinksWhenLatencyRises() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 50, 2.0, 0, 0, TimeUnit.MILLISECONDS);
+        // Latencia base de 5 ms: con llamadas instantáneas el ruido de un equipo cargado ya duplica la latencia
+        for (int round = 0; round < 50; round++) {
+            this.runConcurrently(limiter, limiter.getLimit(), 5);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 4);
+
+        for (int round = 0; round < 10; round++) {
+            this.runConcurrently(limiter, limiter.getLimit(), 40);
+        }
+        assertTrue(limiter.getLimit() < grown);
+    }
+
+    // Lanza 'count' llamadas a la vez, que completan luego de 'millis' (0 = enseguida)
+    private void runConcurrently(AdaptiveLimiter limiter, int count, long millis) {
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[count];
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        for (int i = 0; i < count; i++) {
+            calls[i] = limiter.submit(() -> release.thenCompose(v -> Delays.delayMillis(millis)));
+        }
+        release.complete(null);
+        CompletableFuture.allOf(calls).join();
+    }
+
+}
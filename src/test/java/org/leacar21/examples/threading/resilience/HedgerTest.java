@@ -0,0 +1,81 @@
+package org.leacar21.examples.threading.resilience;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class HedgerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void backupWinsAndSlowPrimaryIsInterrupted() throws Exception {
+        Hedger hedger = new Hedger(this.executor, 0.95, 20, TimeUnit.MILLISECONDS, 2);
+        AtomicInteger attempt = new AtomicInteger();
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+
+        String result = hedger.call(() ->
+            {
+                if (attempt.getAndIncrement() == 0) {
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException e) {
+                        primaryInterrupted.countDown();
+                        throw e;
+                    }
+                }
+                return "respaldo";
+            }).get(2, TimeUnit.SECONDS);
+
+        assertEquals("respaldo", result);
+        assertTrue(primaryInterrupted.await(2, TimeUnit.SECONDS));
+        assertEquals(1, hedger.getHedgeCount());
+    }
+
+    @Test
+    public void fastPrimaryDoesNotHedge() throws Exception {
+        Hedger hedger = new Hedger(this.executor, 0.95, 500, TimeUnit.MILLISECONDS, 2);
+        assertEquals("primario", hedger.call(() -> "primario").get(2, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(0, hedger.getHedgeCount());
+    }
+
+    @Test
+    public void failedAttemptDoesNotWinTheRace() throws Exception {
+        Hedger hedger = new Hedger(this.executor, 0.95, 10, TimeUnit.SECONDS, 3);
+        AtomicInteger attempt = new AtomicInteger();
+        String result = hedger.call(() ->
+            {
+                if (attempt.getAndIncrement() == 0) {
+                    throw new IllegalStateException("Error en el primario");
+                }
+                return "respaldo";
+            }).get(2, TimeUnit.SECONDS);
+        assertEquals("respaldo", result);
+    }
+
+    @Test
+    public void firstSuccessfulSkipsFailures() {
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("Error"));
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        CompletableFuture<String> first = Hedger.firstSuccessful(failed, slow);
+        slow.complete("ok");
+        assertEquals("ok", first.join());
+    }
+
+}
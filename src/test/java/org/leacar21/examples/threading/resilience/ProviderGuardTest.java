@@ -0,0 +1,124 @@
+package org.leacar21.examples.threading.resilience;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ProviderGuardTest {
+
+    private static <T> CompletableFuture<T> failed(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    @Test
+    public void retriesWithBackoffUntilSuccess() {
+        AtomicInteger attempts = new AtomicInteger();
+        Retry retry = new Retry(3, 5, 20, TimeUnit.MILLISECONDS);
+        String result = retry.call(() -> attempts.incrementAndGet() < 3 ? failed(new IllegalStateException("Error"))
+                : CompletableFuture.completedFuture("ok")).join();
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void circuitOpensOnErrorRateAndRecoversThroughHalfOpen() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 0.5, 30, TimeUnit.MILLISECONDS, 1);
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            breaker.call(() ->
+                {
+                    calls.incrementAndGet();
+                    return failed(new IllegalStateException("Error"));
+                });
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        CompletableFuture<String> shortCircuited = breaker.call(() ->
+            {
+                calls.incrementAndGet();
+                return CompletableFuture.completedFuture("no se llama");
+            });
+        assertTrue(shortCircuited.isCompletedExceptionally());
+        assertEquals(4, calls.get());
+
+        Thread.sleep(40);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals("ok", breaker.call(() -> CompletableFuture.completedFuture("ok")).join());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void guardFallsBackWithoutRetryingRejections() {
+        AtomicInteger calls = new AtomicInteger();
+        ProviderGuard guard = new ProviderGuard("test", new Retry(5, 1, 5, TimeUnit.MILLISECONDS),
+                new CircuitBreaker("test", 2, 2, 0.5, 1, TimeUnit.MINUTES, 1), new Bulkhead("test", 1));
+
+        String result = guard.call(() ->
+            {
+                calls.incrementAndGet();
+                return ProviderGuardTest.<String> failed(new IllegalStateException("Error"));
+            } , e -> e instanceof CircuitOpenException ? "StringPorDefecto" : "otro").join();
+
+        // Dos fallas abren el circuito; el tercer intento se rechaza sin llamar y va directo al fallback
+        assertEquals("StringPorDefecto", result);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void bulkheadRejectionsDoNotOpenTheCircuit() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 2, 0.5, 1, TimeUnit.MINUTES, 1);
+        ProviderGuard guard = new ProviderGuard("test", new Retry(3, 1, 5, TimeUnit.MILLISECONDS), breaker, new Bulkhead("test", 1));
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        guard.call(() -> pending);
+        for (int i = 0; i < 5; i++) {
+            String result = guard.call(() ->
+                {
+                    calls.incrementAndGet();
+                    return CompletableFuture.completedFuture("no");
+                } , e -> e instanceof BulkheadFullException ? "lleno" : "otro").join();
+            assertEquals("lleno", result);
+        }
+        pending.complete("ok");
+
+        assertEquals(0, calls.get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void staleResultsDoNotCountAsHalfOpenProbes() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 2, 0.5, 30, TimeUnit.MILLISECONDS, 1);
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        breaker.call(() -> slow);
+        breaker.call(() -> failed(new IllegalStateException("Error")));
+        breaker.call(() -> failed(new IllegalStateException("Error")));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(40);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // La llamada lenta empezó con el circuito cerrado: su éxito no cierra el circuito
+        slow.complete("tarde");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals("ok", breaker.call(() -> CompletableFuture.completedFuture("ok")).join());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void bulkheadRejectsBeyondMaxConcurrent() {
+        Bulkhead bulkhead = new Bulkhead("test", 1);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        bulkhead.call(() -> pending);
+        CompletableFuture<String> rejected = bulkhead.call(() -> CompletableFuture.completedFuture("no"));
+        assertTrue(rejected.isCompletedExceptionally());
+        pending.complete("ok");
+        assertEquals(1, bulkhead.getAvailablePermits());
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.leacar21.examples.threading.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.Test;
+
+public class RingBufferEventSinkTest {
+
+    @Test
+    public void formatsParameterizedEventsOnConsumerThread() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RingBufferEventSink sink = new RingBufferEventSink(16, new PrintStream(bytes, true, "UTF-8"))) {
+            sink.log("Resultado thenCombine: {}", "ab");
+            sink.log("recibidos results: {} {}", "a", "b");
+            sink.log("contador: {}", 42L);
+            sink.flush();
+        }
+        String[] lines = bytes.toString("UTF-8").trim().split("\\R");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].endsWith("Resultado thenCombine: ab"));
+        assertTrue(lines[1].endsWith("recibidos results: a b"));
+        assertTrue(lines[2].endsWith("contador: 42"));
+    }
+
+    @Test
+    public void everyEventIsEitherWrittenOrCountedAsDropped() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int producers = 4;
+        int eventsPerProducer = 5000;
+        long dropped;
+        try (RingBufferEventSink sink = new RingBufferEventSink(64, new PrintStream(bytes, false, "UTF-8"))) {
+            Thread[] threads = new Thread[producers];
+            for (int i = 0; i < producers; i++) {
+                threads[i] = new Thread(() ->
+                    {
+                        for (int j = 0; j < eventsPerProducer; j++) {
+                            sink.log("evento {}", j);
+                        }
+                    });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            sink.flush();
+            dropped = sink.getDroppedCount();
+        }
+        int written = bytes.toString("UTF-8").split("\\R").length;
+        assertEquals(producers * eventsPerProducer, written + dropped);
+    }
+
+}